@@ -0,0 +1,63 @@
+package com.hospital.bench;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentFilter;
+import com.hospital.dao.DaoFactory;
+import com.hospital.model.Appointment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE})
+public class AppointmentDaoBenchmark {
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.ensureSeeded();
+    }
+
+    @Benchmark
+    public Appointment pointLookup() {
+        return appointmentDAO.getAppointmentById(ThreadLocalRandom.current().nextInt(1, BenchmarkDatabase.APPOINTMENTS + 1));
+    }
+
+    // Front-desk doctor/day view through the schedule cache
+    @Benchmark
+    public List<Appointment> doctorDayCached() {
+        return appointmentDAO.getAppointmentsByDoctorAndDate(BenchmarkDatabase.randomDoctor(), BenchmarkDatabase.randomDay());
+    }
+
+    // Same view straight from the database
+    @Benchmark
+    public List<Appointment> doctorDayUncached() {
+        LocalDate day = BenchmarkDatabase.randomDay();
+        AppointmentFilter filter = AppointmentFilter.scheduled();
+        filter.setDoctorId(BenchmarkDatabase.randomDoctor());
+        return appointmentDAO.getAppointmentsBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), filter);
+    }
+
+    @Benchmark
+    public List<Appointment> patientHistory() {
+        return appointmentDAO.getAppointmentsByPatient(BenchmarkDatabase.randomPatientId());
+    }
+}
@@ -0,0 +1,85 @@
+package com.hospital.bench;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentFilter;
+import com.hospital.dao.AsyncAppointmentDAO;
+import com.hospital.dao.AsyncPatientDAO;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.PatientDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// One operation = `requests` front-desk requests, each needing a patient, their appointment history and a
+// doctor's day. "blocking" serves them one after another on the calling thread, as Main does today; "async"
+// fans every request and every query within it out through the virtual-thread DAOs.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE})
+public class AsyncFanOutBenchmark {
+    @Param({"1000"})
+    public int requests;
+
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private AsyncPatientDAO asyncPatientDAO;
+    private AsyncAppointmentDAO asyncAppointmentDAO;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.ensureSeeded();
+        asyncPatientDAO = new AsyncPatientDAO(patientDAO);
+        asyncAppointmentDAO = new AsyncAppointmentDAO(appointmentDAO);
+    }
+
+    @Benchmark
+    public void blocking(Blackhole blackhole) {
+        for (int i = 0; i < requests; i++) {
+            int patientId = BenchmarkDatabase.randomPatientId();
+            LocalDate day = BenchmarkDatabase.randomDay();
+            blackhole.consume(patientDAO.getPatientById(patientId));
+            blackhole.consume(appointmentDAO.getAppointmentsByPatient(patientId));
+            blackhole.consume(appointmentDAO.getAppointmentsBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
+                    doctorFilter()));
+        }
+    }
+
+    @Benchmark
+    public void async(Blackhole blackhole) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            int patientId = BenchmarkDatabase.randomPatientId();
+            LocalDate day = BenchmarkDatabase.randomDay();
+            futures[i] = CompletableFuture.allOf(
+                    asyncPatientDAO.getPatientById(patientId).thenAccept(blackhole::consume),
+                    asyncAppointmentDAO.getAppointmentsByPatient(patientId).thenAccept(blackhole::consume),
+                    asyncAppointmentDAO.getAppointmentsBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
+                            doctorFilter()).thenAccept(blackhole::consume));
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static AppointmentFilter doctorFilter() {
+        AppointmentFilter filter = AppointmentFilter.scheduled();
+        filter.setDoctorId(BenchmarkDatabase.randomDoctor());
+        return filter;
+    }
+}
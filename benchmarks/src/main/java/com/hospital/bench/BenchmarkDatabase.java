@@ -0,0 +1,112 @@
+package com.hospital.bench;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.PatientDAO;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.util.SchemaManager;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Seeds the in-process H2 database once per benchmark JVM. Volumes default to 100k patients and 1M appointments
+// spread over a year of working days for DOCTOR_COUNT doctors; override with -Dbench.patients / -Dbench.appointments.
+final class BenchmarkDatabase {
+    // Passed to every forked benchmark JVM so DatabaseConnection points at the embedded database
+    static final String DB_URL = "-Dhospital.db.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    static final String DB_USER = "-Dhospital.db.user=sa";
+    static final String POOL_SIZE = "-Dhospital.pool.maxSize=32";
+
+    static final int PATIENTS = Integer.getInteger("bench.patients", 100_000);
+    static final int APPOINTMENTS = Integer.getInteger("bench.appointments", 1_000_000);
+    static final int DOCTOR_COUNT = 100;
+    static final int DAYS = 365;
+    static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+    private static final int SEED_CHUNK = 10_000;
+    private static boolean seeded;
+    private static int[] doctorIds;
+
+    private BenchmarkDatabase() {}
+
+    static synchronized void ensureSeeded() throws SQLException {
+        if (seeded) {
+            return;
+        }
+        SchemaManager.initialize();
+        long start = System.nanoTime();
+
+        DoctorDAO doctorDAO = DaoFactory.getDoctorDAO();
+        doctorIds = new int[DOCTOR_COUNT];
+        for (int i = 0; i < DOCTOR_COUNT; i++) {
+            Doctor doctor = new Doctor(String.format("Dr. Bench %03d", i), "General Medicine");
+            doctorDAO.createDoctor(doctor);
+            doctorIds[i] = doctor.getId();
+        }
+
+        PatientDAO patientDAO = DaoFactory.getPatientDAO();
+        for (int from = 0; from < PATIENTS; from += SEED_CHUNK) {
+            patientDAO.createPatients(newPatients(Math.min(SEED_CHUNK, PATIENTS - from)));
+        }
+
+        AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int from = 0; from < APPOINTMENTS; from += SEED_CHUNK) {
+            int count = Math.min(SEED_CHUNK, APPOINTMENTS - from);
+            List<Appointment> appointments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                appointments.add(newAppointment(random.nextInt(1, PATIENTS + 1), random));
+            }
+            appointmentDAO.createAppointments(appointments);
+        }
+
+        System.out.printf("%nSeeded %,d patients and %,d appointments in %.1f s%n",
+                PATIENTS, APPOINTMENTS, (System.nanoTime() - start) / 1e9);
+        seeded = true;
+    }
+
+    static List<Patient> newPatients(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Patient> patients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int n = random.nextInt(1_000_000);
+            patients.add(new Patient("Patient " + n, "555-" + (1000 + n % 9000), "patient" + n + "@example.com",
+                    LocalDate.of(1940, 1, 1).plusDays(random.nextInt(25_000)), n + " Main Street"));
+        }
+        return patients;
+    }
+
+    static Appointment newAppointment(int patientId, SplittableRandom random) {
+        LocalDateTime time = FIRST_DAY.plusDays(random.nextInt(DAYS)).atTime(9, 0).plusMinutes(30L * random.nextInt(16));
+        Appointment appointment = new Appointment(patientId, doctor(random.nextInt(DOCTOR_COUNT)), time, "Routine check-up");
+        if (random.nextInt(10) == 0) {
+            appointment.setStatus(AppointmentStatus.CANCELLED);
+        }
+        return appointment;
+    }
+
+    static int doctor(int index) {
+        return doctorIds[index];
+    }
+
+    static int randomPatientId() {
+        return ThreadLocalRandom.current().nextInt(1, PATIENTS + 1);
+    }
+
+    static int randomDoctor() {
+        return doctor(ThreadLocalRandom.current().nextInt(DOCTOR_COUNT));
+    }
+
+    static LocalDate randomDay() {
+        return FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(DAYS));
+    }
+}
@@ -0,0 +1,185 @@
+package com.hospital.bench;
+
+import com.hospital.Main;
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.BookingResult;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.UpdateResult;
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.SchemaManager;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Fires parallel bookings at the same slots and checks the double-booking guard lets exactly one through per slot:
+//
+//   java -cp benchmarks/target/benchmarks.jar -Dstress.threads=32 -Dstress.rounds=50 com.hospital.bench.BookingStressTest
+//
+// Each round, THREADS bookers wait on a barrier and then all book the same doctor on a fresh day. Booker i takes
+// slot i % SLOTS, an hour apart from the others, starting on the hour or a quarter past, so bookers of one slot
+// collide by overlapping as well as by starting together. A slot must end up with one BOOKED result and one
+// scheduled row; everyone else must get CONFLICT. Three paths are run: plain bookAppointment, which queues on the
+// in-process doctor lock; Main.bookForPatient, which books inside a unit of work as the console, the command line
+// and the HTTP API do; and updateAppointment moving visits from another day into the slots, which must refuse all
+// but one with OVERLAP. Exits with status 1 if any path lets a second booking in or fails one.
+//
+// With no -Dhospital.db.url it runs against an in-memory H2 database; pointed at a local database it adds its own
+// doctor and patients and books days far enough ahead not to meet existing appointments.
+public final class BookingStressTest {
+    private static final String EMBEDDED_URL = "jdbc:h2:mem:stress;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final int ROUNDS = Integer.getInteger("stress.rounds", 20);
+    // Slots contested per round; THREADS / SLOTS bookers race for each
+    private static final int SLOTS = Integer.getInteger("stress.slots", 4);
+    private static final int DURATION_MINUTES = 30;
+
+    enum Path {
+        PLAIN, UNIT_OF_WORK, MOVE
+    }
+
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private final DoctorDAO doctorDAO = DaoFactory.getDoctorDAO();
+    private int[] patientIds;
+    // Days already used, so every round starts with an empty calendar
+    private LocalDate nextDay = LocalDate.now().plusYears(5);
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("hospital.db.url") == null) {
+            System.setProperty("hospital.db.url", EMBEDDED_URL);
+            System.setProperty("hospital.db.user", "sa");
+        }
+        if (System.getProperty("hospital.pool.maxSize") == null) {
+            System.setProperty("hospital.pool.maxSize", String.valueOf(Math.max(2, THREADS)));
+        }
+        if (THREADS < SLOTS * 2) {
+            throw new IllegalArgumentException("stress.threads must be at least twice stress.slots");
+        }
+        BookingStressTest test = new BookingStressTest();
+        boolean passed;
+        try {
+            test.prepare();
+            passed = test.run(Path.PLAIN) & test.run(Path.UNIT_OF_WORK) & test.run(Path.MOVE);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private void prepare() throws SQLException {
+        SchemaManager.initialize();
+        patientIds = new int[THREADS];
+        List<Patient> patients = new ArrayList<>(THREADS);
+        SyntheticData data = new SyntheticData(7);
+        for (int i = 0; i < THREADS; i++) {
+            patients.add(data.patient());
+        }
+        patientDAO.createPatients(patients);
+        for (int i = 0; i < THREADS; i++) {
+            patientIds[i] = patients.get(i).getId();
+        }
+    }
+
+    // True if every slot of every round had exactly one winner and no booking failed
+    private boolean run(Path path) throws Exception {
+        Doctor doctor = new Doctor("Dr. Stress " + path.name().toLowerCase(), "General Medicine");
+        doctorDAO.createDoctor(doctor);
+
+        Map<BookingResult, Integer> totals = new EnumMap<>(BookingResult.class);
+        int badSlots = 0;
+        long start = System.nanoTime();
+        ExecutorService bookers = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime base = nextDay.atTime(9, 0);
+                // Moves start from the day after, where every booker has a visit of its own
+                LocalDateTime staging = nextDay.plusDays(1).atTime(9, 0);
+                nextDay = nextDay.plusDays(2);
+                CyclicBarrier startLine = new CyclicBarrier(THREADS);
+                List<Future<BookingResult>> results = new ArrayList<>(THREADS);
+                for (int i = 0; i < THREADS; i++) {
+                    int booker = i;
+                    results.add(bookers.submit(() -> {
+                        if (path == Path.MOVE) {
+                            Appointment appointment = new Appointment(patientIds[booker], doctor.getId(),
+                                    staging.plusMinutes(booker), "Stress booking");
+                            appointment.setDurationMinutes(DURATION_MINUTES);
+                            appointmentDAO.createAppointment(appointment);
+                            appointment.setAppointmentTime(slotStart(base, booker));
+                            startLine.await();
+                            return moved(appointmentDAO.updateAppointment(appointment));
+                        }
+                        Appointment appointment = new Appointment(patientIds[booker], doctor.getId(),
+                                slotStart(base, booker), "Stress booking");
+                        appointment.setDurationMinutes(DURATION_MINUTES);
+                        startLine.await();
+                        return path == Path.PLAIN
+                                ? appointmentDAO.bookAppointment(appointment)
+                                : Main.bookForPatient(patientIds[booker], appointment);
+                    }));
+                }
+
+                int[] booked = new int[SLOTS];
+                for (int i = 0; i < THREADS; i++) {
+                    BookingResult result = results.get(i).get();
+                    totals.merge(result, 1, Integer::sum);
+                    if (result == BookingResult.BOOKED) {
+                        booked[i % SLOTS]++;
+                    }
+                }
+                int[] stored = new int[SLOTS];
+                for (Appointment appointment : appointmentDAO.getAppointmentsByDoctorAndDate(doctor.getId(),
+                        base.toLocalDate())) {
+                    stored[(appointment.getAppointmentTime().getHour() - base.getHour()) % SLOTS]++;
+                }
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    if (booked[slot] != 1 || stored[slot] != 1) {
+                        badSlots++;
+                        System.out.printf("  round %d slot %d: %d booked, %d stored%n", round, slot, booked[slot],
+                                stored[slot]);
+                    }
+                }
+            }
+        } finally {
+            bookers.shutdown();
+        }
+
+        int failed = totals.getOrDefault(BookingResult.FAILED, 0) + totals.getOrDefault(BookingResult.INVALID, 0);
+        System.out.printf("%-12s %,d bookings over %d rounds in %.1f s: %s; %d of %d slots without exactly one winner%n",
+                path.name().toLowerCase(), THREADS * ROUNDS, ROUNDS, (System.nanoTime() - start) / 1e9, totals,
+                badSlots, ROUNDS * SLOTS);
+        return badSlots == 0 && failed == 0;
+    }
+
+    // A move reported the way a booking would be
+    private static BookingResult moved(UpdateResult result) {
+        switch (result) {
+            case UPDATED:
+                return BookingResult.BOOKED;
+            case OVERLAP:
+                return BookingResult.CONFLICT;
+            default:
+                return BookingResult.FAILED;
+        }
+    }
+
+    // Slot booker % SLOTS, an hour after the one before; every other booker of a slot starts a quarter past
+    private static LocalDateTime slotStart(LocalDateTime base, int booker) {
+        return base.plusHours(booker % SLOTS).plusMinutes(booker / SLOTS % 2 * 15L);
+    }
+}
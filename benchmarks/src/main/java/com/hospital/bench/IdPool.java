@@ -0,0 +1,42 @@
+package com.hospital.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ids a load test can pick from: the ids that existed when it started plus a ring of the RECENT most recently
+// added ones, so operations can target records made during the run (book for a patient just registered, cancel
+// a visit just booked). Lock-free: a pick racing an add can land on the slot before it is written and get 0, which
+// callers treat like an empty pool.
+final class IdPool {
+    private static final int RECENT = 1 << 16;
+
+    private final int[] initial;
+    private final AtomicIntegerArray recent = new AtomicIntegerArray(RECENT);
+    private final AtomicLong added = new AtomicLong();
+
+    IdPool(int[] initial) {
+        this.initial = initial;
+    }
+
+    void add(int id) {
+        recent.set((int) (added.getAndIncrement() & (RECENT - 1)), id);
+    }
+
+    // Any id; 0 if there are none
+    int any(SplittableRandom random) {
+        long recentCount = Math.min(added.get(), RECENT);
+        long total = initial.length + recentCount;
+        if (total == 0) {
+            return 0;
+        }
+        long index = random.nextLong(total);
+        return index < initial.length ? initial[(int) index] : recent.get((int) (index - initial.length));
+    }
+
+    // One of the RECENT latest ids, or any id when none were added
+    int recent(SplittableRandom random) {
+        long recentCount = Math.min(added.get(), RECENT);
+        return recentCount == 0 ? any(random) : recent.get(random.nextInt((int) recentCount));
+    }
+}
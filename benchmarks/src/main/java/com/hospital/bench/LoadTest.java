@@ -0,0 +1,429 @@
+package com.hospital.bench;
+
+import com.hospital.Main;
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentFilter;
+import com.hospital.dao.BookingResult;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.PatientDAO;
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.SchemaManager;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Front-desk traffic against the DAO layer at a fixed arrival rate, reporting latency percentiles and error rates
+// every few seconds and for the whole run:
+//
+//   java -cp benchmarks/target/benchmarks.jar -Dload.rate=500 -Dload.seconds=120 com.hospital.bench.LoadTest
+//
+// The load is open-loop: operations arrive as a Poisson process at load.rate per second whether or not earlier
+// ones have finished, each on its own virtual thread, and latency is measured from when the operation was due to
+// start, not from when it got going. A closed loop (N threads each waiting for its last call) slows its own
+// arrivals when the system stalls and so hides exactly the queueing a morning peak causes; here a stall shows up
+// as the gap between response time and service time.
+//
+// With no -Dhospital.db.url it runs against an in-memory H2 database, seeded with SyntheticData. Pointed at a
+// local database it seeds only if there are no patients, and otherwise uses the data already there.
+public final class LoadTest {
+    private static final String EMBEDDED_URL = "jdbc:h2:mem:load;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    // Operations per second, across all kinds
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "200"));
+    private static final int SECONDS = Integer.getInteger("load.seconds", 60);
+    private static final int REPORT_SECONDS = Integer.getInteger("load.reportSeconds", 5);
+    // Relative weights of the operations
+    private static final String MIX = System.getProperty("load.mix", "register=5,lookup=40,listing=30,book=20,cancel=5");
+    // Operations arriving while this many are still running are dropped and counted as errors, so a stalled
+    // database cannot make the harness itself run out of memory
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("load.maxInFlight", 10_000);
+    // Bookings, listings and cancellations fall on working days in the next DAYS days
+    private static final int DAYS = Integer.getInteger("load.days", 20);
+    private static final long RANDOM_SEED = Long.getLong("load.randomSeed", 42);
+    // Seeding an empty database: patients, doctors, and the share of each doctor's half-hour slots already booked
+    private static final int PATIENTS = Integer.getInteger("load.patients", 100_000);
+    private static final int DOCTORS = Integer.getInteger("load.doctors", 50);
+    private static final double OCCUPANCY = Double.parseDouble(System.getProperty("load.occupancy", "0.5"));
+
+    private static final int SEED_CHUNK = 10_000;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    enum Operation {
+        REGISTER, LOOKUP, LISTING, BOOK, CANCEL;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // What became of one operation. REFUSED is a correct answer the caller did not want: a booking conflict, a
+    // visit that was already cancelled
+    enum Outcome {OK, REFUSED, ERROR}
+
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private final DoctorDAO doctorDAO = DaoFactory.getDoctorDAO();
+    private final SyntheticData data = new SyntheticData(RANDOM_SEED);
+    private final LocalDate firstDay = LocalDate.now().plusDays(1);
+    private final Stats[] stats = new Stats[Operation.values().length];
+    private final Stats total = new Stats();
+    private final double[] weights = new double[Operation.values().length];
+    private Doctor[] doctors;
+    private IdPool patients;
+    private IdPool appointments;
+    // Where the previous interval report left off
+    private long reportedAt;
+    private long reportedDone;
+    private long reportedErrors;
+
+    private LoadTest() {
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new Stats();
+        }
+        parseMix();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("hospital.db.url") == null) {
+            System.setProperty("hospital.db.url", EMBEDDED_URL);
+            System.setProperty("hospital.db.user", "sa");
+        }
+        if (System.getProperty("hospital.pool.maxSize") == null) {
+            System.setProperty("hospital.pool.maxSize", "32");
+        }
+        LoadTest test = new LoadTest();
+        try {
+            test.prepare();
+            test.run();
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    private void parseMix() {
+        for (String entry : MIX.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("load.mix entries look like lookup=40: " + entry);
+            }
+            Operation operation = Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            weights[operation.ordinal()] = Double.parseDouble(parts[1].trim());
+        }
+        double sum = 0;
+        for (double weight : weights) {
+            sum += weight;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("load.mix has no positive weights: " + MIX);
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= sum;
+        }
+    }
+
+    private void prepare() throws SQLException {
+        SchemaManager.initialize();
+        // Only the load test's own doctors: the ones migrations seed have empty calendars, which would dilute the
+        // conflict rate OCCUPANCY sets
+        List<Doctor> ownDoctors;
+        if (patientDAO.getPatientsAfter(0, 1).isEmpty()) {
+            ownDoctors = seed();
+        } else {
+            ownDoctors = new ArrayList<>();
+            for (Doctor doctor : doctorDAO.getAllDoctors()) {
+                if (SyntheticData.isSynthetic(doctor)) {
+                    ownDoctors.add(doctor);
+                }
+            }
+        }
+        if (ownDoctors.isEmpty()) {
+            throw new IllegalStateException("The database has patients but no load test doctors to book with");
+        }
+        doctors = ownDoctors.toArray(new Doctor[0]);
+
+        // The first PATIENTS patients, and the visits still scheduled in the booking window
+        List<Integer> patientIds = new ArrayList<>();
+        int afterId = 0;
+        while (patientIds.size() < PATIENTS) {
+            List<Patient> page = patientDAO.getPatientsAfter(afterId, 1000);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Patient patient : page) {
+                patientIds.add(patient.getId());
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        patients = new IdPool(patientIds.stream().mapToInt(Integer::intValue).toArray());
+        appointments = new IdPool(appointmentDAO.getAppointmentsBetween(firstDay.atStartOfDay(),
+                firstDay.plusDays(DAYS).atStartOfDay(), AppointmentFilter.scheduled()).stream()
+                .mapToInt(Appointment::getId).toArray());
+        System.out.printf("Using %,d patients and %d doctors%n", patientIds.size(), doctors.length);
+    }
+
+    // Doctors and patients from SyntheticData, then OCCUPANCY of every doctor's half-hour slots over the booking
+    // window, so bookings run into conflicts about as often as that
+    private List<Doctor> seed() {
+        long start = System.nanoTime();
+        List<Doctor> seeded = new ArrayList<>(DOCTORS);
+        for (int i = 0; i < DOCTORS; i++) {
+            Doctor doctor = data.doctor(i);
+            doctorDAO.createDoctor(doctor);
+            seeded.add(doctor);
+        }
+
+        int[] patientIds = new int[PATIENTS];
+        for (int from = 0; from < PATIENTS; from += SEED_CHUNK) {
+            List<Patient> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = from; i < Math.min(from + SEED_CHUNK, PATIENTS); i++) {
+                chunk.add(data.patient());
+            }
+            patientDAO.createPatients(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                patientIds[from + i] = chunk.get(i).getId();
+            }
+        }
+
+        SplittableRandom random = data.random();
+        List<Appointment> booked = new ArrayList<>();
+        for (Doctor doctor : seeded) {
+            for (LocalDate day = firstDay; day.isBefore(firstDay.plusDays(DAYS)); day = day.plusDays(1)) {
+                if (day.getDayOfWeek().getValue() > 5) {
+                    continue;
+                }
+                for (LocalDateTime time = day.atTime(doctor.getWorkStart()); time.toLocalTime().isBefore(doctor.getWorkEnd());
+                     time = time.plusMinutes(30)) {
+                    if (random.nextDouble() < OCCUPANCY) {
+                        Appointment appointment = new Appointment(patientIds[random.nextInt(PATIENTS)], doctor.getId(),
+                                time, "Routine check-up");
+                        booked.add(appointment);
+                    }
+                }
+            }
+        }
+        for (int from = 0; from < booked.size(); from += SEED_CHUNK) {
+            appointmentDAO.createAppointments(booked.subList(from, Math.min(from + SEED_CHUNK, booked.size())));
+        }
+        System.out.printf("Seeded %,d patients, %d doctors and %,d appointments in %.1f s%n",
+                PATIENTS, DOCTORS, booked.size(), (System.nanoTime() - start) / 1e9);
+        return seeded;
+    }
+
+    private void run() throws InterruptedException {
+        System.out.printf("Open-loop load: %.0f operations/s for %d s, mix %s%n%n", RATE, SECONDS, MIX);
+        System.out.printf("%7s %9s %8s %7s %9s %9s %9s %9s   p99 ms:", "elapsed", "ops/s", "errors", "err%",
+                "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            System.out.printf(" %9s", operation.label());
+        }
+        System.out.println();
+
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "load-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        reportedAt = start;
+        reporter.scheduleAtFixedRate(() -> report(start), REPORT_SECONDS, REPORT_SECONDS, TimeUnit.SECONDS);
+
+        SplittableRandom random = data.random();
+        long end = start + TimeUnit.SECONDS.toNanos(SECONDS);
+        long due = start;
+        while (due < end) {
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+            }
+            Operation operation = pick(random.nextDouble());
+            long scheduled = due;
+            if (inFlight.tryAcquire()) {
+                SyntheticData taskData = data.split();
+                workers.execute(() -> {
+                    try {
+                        execute(operation, scheduled, taskData);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } else {
+                record(operation, Outcome.ERROR, 0, 0, false);
+            }
+            // Exponential gaps make the arrivals a Poisson process, with the bursts real traffic has
+            due += (long) (-Math.log(1 - random.nextDouble()) / RATE * 1e9);
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+        reporter.shutdownNow();
+        report(start);
+        summarize((System.nanoTime() - start) / 1e9);
+    }
+
+    private Operation pick(double u) {
+        Operation[] operations = Operation.values();
+        for (int i = 0; i < operations.length - 1; i++) {
+            u -= weights[i];
+            if (u < 0) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation, long scheduled, SyntheticData data) {
+        long started = System.nanoTime();
+        Outcome outcome;
+        try {
+            outcome = perform(operation, data);
+        } catch (RuntimeException e) {
+            outcome = Outcome.ERROR;
+        }
+        long finished = System.nanoTime();
+        record(operation, outcome, finished - scheduled, finished - started, true);
+    }
+
+    private Outcome perform(Operation operation, SyntheticData data) {
+        SplittableRandom random = data.random();
+        switch (operation) {
+            case REGISTER: {
+                Patient patient = data.patient();
+                patientDAO.createPatient(patient);
+                if (patient.getId() == 0) {
+                    return Outcome.ERROR;
+                }
+                patients.add(patient.getId());
+                return Outcome.OK;
+            }
+            case LOOKUP: {
+                int id = patients.any(random);
+                return id == 0 ? Outcome.REFUSED : patientDAO.getPatientById(id) != null ? Outcome.OK : Outcome.ERROR;
+            }
+            case LISTING:
+                appointmentDAO.getAppointmentsByDoctorAndDate(doctors[random.nextInt(doctors.length)].getId(),
+                        data.workingDay(firstDay, DAYS));
+                return Outcome.OK;
+            case BOOK: {
+                // A quarter of bookings are for someone registered during the run, as after a walk-in registration
+                int patientId = random.nextInt(4) == 0 ? patients.recent(random) : patients.any(random);
+                if (patientId == 0) {
+                    return Outcome.REFUSED;
+                }
+                Appointment appointment = data.appointment(patientId, doctors[random.nextInt(doctors.length)],
+                        data.workingDay(firstDay, DAYS));
+                BookingResult result = Main.bookForPatient(patientId, appointment);
+                if (result == BookingResult.BOOKED) {
+                    appointments.add(appointment.getId());
+                    return Outcome.OK;
+                }
+                return result == BookingResult.CONFLICT ? Outcome.REFUSED : Outcome.ERROR;
+            }
+            default: {
+                // Mostly visits booked during the run, which are the ones patients call back about
+                int id = appointments.recent(random);
+                return id != 0 && appointmentDAO.cancelAppointment(id) ? Outcome.OK : Outcome.REFUSED;
+            }
+        }
+    }
+
+    // measured is false for an operation dropped before it ran, which has no latency
+    private void record(Operation operation, Outcome outcome, long responseNanos, long serviceNanos, boolean measured) {
+        stats[operation.ordinal()].record(outcome, responseNanos, serviceNanos, measured);
+        total.record(outcome, responseNanos, serviceNanos, measured);
+    }
+
+    // One line for the interval since the last report: throughput, errors and response time percentiles over all
+    // operations, then p99 by operation
+    private synchronized void report(long start) {
+        long now = System.nanoTime();
+        if (now - reportedAt < TimeUnit.MILLISECONDS.toNanos(100)) {
+            // The run ended just after a scheduled report
+            return;
+        }
+        long done = total.count(Outcome.OK) + total.count(Outcome.REFUSED) + total.count(Outcome.ERROR);
+        long errors = total.count(Outcome.ERROR);
+        long newDone = done - reportedDone;
+        long newErrors = errors - reportedErrors;
+        double seconds = (now - reportedAt) / 1e9;
+        LatencyHistogram interval = total.interval.getAndSet(new LatencyHistogram());
+        long[] values = interval.getValuesAtPercentiles(50, 90, 99);
+        System.out.printf("%6.0fs %9.1f %8d %6.2f%% %9.2f %9.2f %9.2f %9.2f   p99 ms:", (now - start) / 1e9,
+                newDone / seconds, newErrors, newDone == 0 ? 0 : 100.0 * newErrors / newDone,
+                millis(values[0]), millis(values[1]), millis(values[2]), millis(interval.getMaxNanos()));
+        for (Stats s : stats) {
+            System.out.printf(" %9.2f", millis(s.interval.getAndSet(new LatencyHistogram()).getValueAtPercentile(99)));
+        }
+        System.out.println();
+        reportedAt = now;
+        reportedDone = done;
+        reportedErrors = errors;
+    }
+
+    // Response time counts from when each operation was due; service time from when it actually started
+    private void summarize(double seconds) {
+        System.out.printf("%nWhole run, %.1f s:%n", seconds);
+        System.out.printf("%-9s %9s %9s %9s %9s %7s %9s %9s %9s %9s %9s %12s%n", "operation", "count", "ok",
+                "refused", "errors", "err%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "service p99");
+        for (Operation operation : Operation.values()) {
+            summarize(operation.label(), stats[operation.ordinal()]);
+        }
+        summarize("all", total);
+    }
+
+    private static void summarize(String label, Stats s) {
+        long ok = s.count(Outcome.OK);
+        long refused = s.count(Outcome.REFUSED);
+        long errors = s.count(Outcome.ERROR);
+        long count = ok + refused + errors;
+        long[] values = s.response.getValuesAtPercentiles(PERCENTILES);
+        System.out.printf("%-9s %9d %9d %9d %9d %6.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f%n", label, count, ok,
+                refused, errors, count == 0 ? 0 : 100.0 * errors / count, millis(values[0]), millis(values[1]),
+                millis(values[2]), millis(values[3]), millis(s.response.getMaxNanos()),
+                millis(s.service.getValueAtPercentile(99)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // Counts by outcome and latency for one operation, or all of them. interval is swapped out at every report.
+    private static final class Stats {
+        final LongAdder[] outcomes = {new LongAdder(), new LongAdder(), new LongAdder()};
+        final LatencyHistogram response = new LatencyHistogram();
+        final LatencyHistogram service = new LatencyHistogram();
+        final AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+
+        void record(Outcome outcome, long responseNanos, long serviceNanos, boolean measured) {
+            outcomes[outcome.ordinal()].increment();
+            if (measured) {
+                response.record(responseNanos);
+                service.record(serviceNanos);
+                interval.get().record(responseNanos);
+            }
+        }
+
+        long count(Outcome outcome) {
+            return outcomes[outcome.ordinal()].sum();
+        }
+    }
+}
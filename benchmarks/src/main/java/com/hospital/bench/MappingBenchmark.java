@@ -0,0 +1,72 @@
+package com.hospital.bench;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentFilter;
+import com.hospital.dao.DaoFactory;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A whole day's schedule across all doctors (thousands of rows). iterateOnly runs the same range query and
+// walks the rows without building models, so the gap between the two is the ResultSet-to-model mapping cost.
+// Run with -prof gc to compare allocation per operation.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE})
+public class MappingBenchmark {
+    private static final String DAY_SQL = "SELECT id, version, patient_id, doctor_id, appointment_time, duration_minutes, purpose, status "
+            + "FROM appointments WHERE appointment_time >= ? AND appointment_time < ? "
+            + "AND status = " + AppointmentStatus.SCHEDULED.getCode() + " ORDER BY appointment_time";
+
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private final LocalDate day = BenchmarkDatabase.FIRST_DAY.plusDays(100);
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.ensureSeeded();
+    }
+
+    @Benchmark
+    public List<Appointment> mapDayListing() {
+        return appointmentDAO.getAppointmentsBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
+                AppointmentFilter.scheduled());
+    }
+
+    @Benchmark
+    public int iterateOnly() throws SQLException {
+        int rows = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DAY_SQL)) {
+            stmt.setObject(1, day.atStartOfDay());
+            stmt.setObject(2, day.plusDays(1).atStartOfDay());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,79 @@
+package com.hospital.bench;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.PatientDAO;
+import com.hospital.model.Appointment;
+import com.hospital.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// What the metrics hooks cost per DAO call. Each pair runs the same call in a JVM started with metrics disabled and
+// in one with them enabled. Disabled, nothing is wrapped and the hooks are constant-folded away, so that side of each
+// pair is the uninstrumented baseline.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MetricsOverheadBenchmark {
+    private static final String DISABLED = "-Dhospital.metrics.enabled=false";
+    private static final String ENABLED = "-Dhospital.metrics.enabled=true";
+    // Few enough to stay in the patient cache
+    private static final int HOT_PATIENTS = 100;
+
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.ensureSeeded();
+    }
+
+    // Borrow, prepare, execute and map: every hook on the JDBC path fires once
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE, DISABLED})
+    public Appointment queryMetricsDisabled() {
+        return queryById();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE, ENABLED})
+    public Appointment queryMetricsEnabled() {
+        return queryById();
+    }
+
+    // A cache hit never reaches JDBC, so this pair isolates the DAO wrapper on the cheapest call there is
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE, DISABLED})
+    public Patient cacheHitMetricsDisabled() {
+        return cachedPatient();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE, ENABLED})
+    public Patient cacheHitMetricsEnabled() {
+        return cachedPatient();
+    }
+
+    private Appointment queryById() {
+        return appointmentDAO.getAppointmentById(ThreadLocalRandom.current().nextInt(1, BenchmarkDatabase.APPOINTMENTS + 1));
+    }
+
+    private Patient cachedPatient() {
+        return patientDAO.getPatientById(ThreadLocalRandom.current().nextInt(1, HOT_PATIENTS + 1));
+    }
+}
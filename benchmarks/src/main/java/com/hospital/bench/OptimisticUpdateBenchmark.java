@@ -0,0 +1,92 @@
+package com.hospital.bench;
+
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.UpdateResult;
+import com.hospital.model.Patient;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Concurrent writers doing read-modify-write on a few hot patients through the versioned updatePatient, retrying
+// on CONFLICT. Each update increments a counter kept in the address, so teardown can prove no update was lost: the
+// stored counters must add up to the number of UPDATED results. Conflicts per second are reported alongside.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE})
+public class OptimisticUpdateBenchmark {
+    @Param({"1", "16"})
+    public int hotPatients;
+
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+    private final AtomicLong updated = new AtomicLong();
+    private int[] ids;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Retries {
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.ensureSeeded();
+        ids = new int[hotPatients];
+        for (int i = 0; i < hotPatients; i++) {
+            Patient patient = new Patient("Hot Patient " + i, "555-0100", null, LocalDate.of(1980, 1, 1), "0");
+            patientDAO.createPatient(patient);
+            ids[i] = patient.getId();
+        }
+    }
+
+    @Benchmark
+    public UpdateResult incrementContended(Retries retries) {
+        int id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        while (true) {
+            Patient patient = patientDAO.getPatientById(id);
+            patient.setAddress(String.valueOf(Long.parseLong(patient.getAddress()) + 1));
+            UpdateResult result = patientDAO.updatePatient(patient);
+            if (result != UpdateResult.CONFLICT) {
+                if (result == UpdateResult.UPDATED) {
+                    updated.incrementAndGet();
+                }
+                return result;
+            }
+            retries.conflicts++;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void verifyNoLostUpdates() {
+        long stored = 0;
+        for (int id : ids) {
+            stored += Long.parseLong(patientDAO.getPatientById(id).getAddress());
+        }
+        if (stored != updated.get()) {
+            throw new IllegalStateException("Lost updates: " + updated.get() + " reported, " + stored + " stored");
+        }
+        System.out.printf("%nVerified %,d updates across %d patients, none lost%n", stored, ids.length);
+    }
+}
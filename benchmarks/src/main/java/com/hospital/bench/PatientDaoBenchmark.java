@@ -0,0 +1,67 @@
+package com.hospital.bench;
+
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.PatientDAO;
+import com.hospital.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE})
+public class PatientDaoBenchmark {
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.ensureSeeded();
+    }
+
+    // Random ids over the whole table, so most lookups miss the bounded patient cache
+    @Benchmark
+    public Patient pointLookup() {
+        return patientDAO.getPatientById(BenchmarkDatabase.randomPatientId());
+    }
+
+    // Resolving the patients behind a page of 50 appointments
+    @Benchmark
+    public Map<Integer, Patient> bulkLookup() {
+        List<Integer> ids = new ArrayList<>(50);
+        for (int i = 0; i < 50; i++) {
+            ids.add(BenchmarkDatabase.randomPatientId());
+        }
+        return patientDAO.getPatientsByIds(ids);
+    }
+
+    @Benchmark
+    public List<Patient> pageScan() {
+        return patientDAO.getPatientsAfter(ThreadLocalRandom.current().nextInt(BenchmarkDatabase.PATIENTS), 20);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void fullScan(Blackhole blackhole) {
+        patientDAO.forEachPatient(blackhole::consume);
+    }
+}
@@ -0,0 +1,105 @@
+package com.hospital.bench;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+// Plausible patients, doctors and appointments for load tests: names drawn from common first and last names (so
+// name searches hit many rows, as at a real desk), an adult-heavy age spread, visit lengths and purposes in front
+// desk proportions, and start times on the SLOT_MINUTES grid inside the doctor's working hours. Deterministic for
+// a given seed; one instance per thread, or split() for another thread.
+final class SyntheticData {
+    static final int SLOT_MINUTES = 15;
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael",
+            "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Aisha", "Wei", "Priya", "Carlos", "Fatima", "Hiroshi", "Olga", "Kwame",
+            "Sofia", "Mateo", "Noah", "Emma", "Liam", "Olivia", "Lucas", "Ava", "Arjun", "Mei", "Omar", "Zara"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark",
+            "Ramirez", "Lewis", "Robinson", "Patel", "Nguyen", "Kim", "Chen", "Singh", "Khan", "Ali", "Ivanova",
+            "Okafor", "Tanaka"};
+    private static final String[] STREETS = {"Main St", "Oak Ave", "Maple Dr", "Park Rd", "Cedar Ln", "Elm St",
+            "Hill Rd", "Lake View", "Station Rd", "Church St"};
+    private static final String[] SPECIALIZATIONS = {"General Medicine", "Cardiology", "Pediatrics", "Orthopedics",
+            "Dermatology", "Neurology", "Gynecology", "Ophthalmology"};
+    private static final String[] PURPOSES = {"Routine check-up", "Follow-up", "Consultation", "Vaccination",
+            "Test results", "Prescription renewal", "Pain assessment", "Pre-operative review"};
+    // Weighted: most visits are the default length
+    private static final int[] DURATIONS = {15, 15, 30, 30, 30, 30, 30, 45, 60};
+    private static final Pattern DOCTOR_NAME = Pattern.compile("Dr\\. \\S+ \\d{3,}");
+
+    private final SplittableRandom random;
+
+    SyntheticData(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SyntheticData(SplittableRandom random) {
+        this.random = random;
+    }
+
+    SyntheticData split() {
+        return new SyntheticData(random.split());
+    }
+
+    SplittableRandom random() {
+        return random;
+    }
+
+    Patient patient() {
+        String first = pick(FIRST_NAMES);
+        String last = pick(LAST_NAMES);
+        int n = random.nextInt(10_000_000);
+        // Ages 0-95, weighted towards adults
+        int age = Math.min(95, (int) Math.abs(random.nextDouble() * 50 + random.nextDouble() * 50 - 5));
+        LocalDate dateOfBirth = LocalDate.now().minusYears(age).minusDays(random.nextInt(365));
+        String email = random.nextInt(5) == 0 ? null
+                : (first + "." + last + (n % 1000)).toLowerCase() + "@example." + (random.nextBoolean() ? "com" : "org");
+        return new Patient(first + " " + last, String.format("555-%03d-%04d", n / 10_000 % 1000, n % 10_000), email,
+                dateOfBirth, (1 + random.nextInt(2000)) + " " + pick(STREETS));
+    }
+
+    Doctor doctor(int index) {
+        // Most doctors keep the default 9 to 5; a few start early or stay late
+        LocalTime start = LocalTime.of(random.nextInt(4) == 0 ? 8 : 9, 0);
+        LocalTime end = LocalTime.of(random.nextInt(4) == 0 ? 18 : 17, 0);
+        return new Doctor(String.format("Dr. %s %03d", pick(LAST_NAMES), index), pick(SPECIALIZATIONS), start, end);
+    }
+
+    // Whether doctor() made this doctor, going by the numbered name
+    static boolean isSynthetic(Doctor doctor) {
+        return DOCTOR_NAME.matcher(doctor.getName()).matches();
+    }
+
+    // A visit on day with the doctor, starting on the slot grid and ending within the doctor's hours
+    Appointment appointment(int patientId, Doctor doctor, LocalDate day) {
+        int duration = DURATIONS[random.nextInt(DURATIONS.length)];
+        int slots = ((doctor.getWorkEnd().toSecondOfDay() - doctor.getWorkStart().toSecondOfDay()) / 60
+                - duration) / SLOT_MINUTES + 1;
+        LocalDateTime start = day.atTime(doctor.getWorkStart()).plusMinutes((long) SLOT_MINUTES * random.nextInt(slots));
+        Appointment appointment = new Appointment(patientId, doctor.getId(), start, pick(PURPOSES));
+        appointment.setDurationMinutes(duration);
+        return appointment;
+    }
+
+    // Working days only: weekends are skipped
+    LocalDate workingDay(LocalDate first, int days) {
+        LocalDate day = first.plusDays(random.nextInt(days));
+        while (day.getDayOfWeek().getValue() > 5) {
+            day = day.plusDays(1);
+        }
+        return day;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
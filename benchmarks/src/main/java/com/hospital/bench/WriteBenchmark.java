@@ -0,0 +1,61 @@
+package com.hospital.bench;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.BatchResult;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.PatientDAO;
+import com.hospital.model.Appointment;
+import com.hospital.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Bulk inserts of batchSize rows per operation through the batched DAO APIs
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.DB_URL, BenchmarkDatabase.DB_USER, BenchmarkDatabase.POOL_SIZE})
+public class WriteBenchmark {
+    @Param({"1000"})
+    public int batchSize;
+
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.ensureSeeded();
+    }
+
+    @Benchmark
+    public BatchResult bulkInsertPatients() {
+        return patientDAO.createPatients(BenchmarkDatabase.newPatients(batchSize));
+    }
+
+    @Benchmark
+    public BatchResult bulkInsertAppointments() {
+        List<Appointment> appointments = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            appointments.add(BenchmarkDatabase.newAppointment(BenchmarkDatabase.randomPatientId(), random));
+        }
+        return appointmentDAO.createAppointments(appointments);
+    }
+}
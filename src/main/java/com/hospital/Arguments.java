@@ -0,0 +1,110 @@
+package com.hospital;
+
+import com.hospital.util.ConsoleUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Command-line arguments: a command name, positional arguments, and options written --name value or --name=value.
+// An option with no value after it (--history) is a flag. Problems are reported as IllegalArgumentException with a
+// message meant for the user.
+final class Arguments {
+    private final String command;
+    private final List<String> positional = new ArrayList<>();
+    private final Map<String, String> options = new HashMap<>();
+
+    Arguments(String[] args) {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("No command given");
+        }
+        command = args[0];
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (equals > 0) {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(arg.substring(2), args[++i]);
+            } else {
+                options.put(arg.substring(2), "true");
+            }
+        }
+    }
+
+    String command() {
+        return command;
+    }
+
+    // Fails on options the command does not take, so a mistyped one is not silently ignored
+    void allow(Set<String> names) {
+        for (String name : options.keySet()) {
+            if (!names.contains(name)) {
+                throw new IllegalArgumentException(command + " does not take --" + name);
+            }
+        }
+    }
+
+    String positional(int index, String what) {
+        if (index >= positional.size()) {
+            throw new IllegalArgumentException(command + " needs " + what);
+        }
+        return positional.get(index);
+    }
+
+    boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    String get(String name) {
+        return options.get(name);
+    }
+
+    String require(String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(command + " needs --" + name);
+        }
+        return value;
+    }
+
+    int getInt(String name, int defaultValue) {
+        return has(name) ? requireInt(name) : defaultValue;
+    }
+
+    int requireInt(String name) {
+        String value = require(name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number: " + value);
+        }
+    }
+
+    LocalDate requireDate(String name) {
+        String value = require(name);
+        try {
+            return LocalDate.parse(value, ConsoleUtil.DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("--" + name + " must be a date as YYYY-MM-DD: " + value);
+        }
+    }
+
+    LocalDateTime requireDateTime(String name) {
+        String value = require(name);
+        try {
+            return LocalDateTime.parse(value, ConsoleUtil.DATE_TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("--" + name + " must be a date and time as \"YYYY-MM-DD HH:MM\": " + value);
+        }
+    }
+}
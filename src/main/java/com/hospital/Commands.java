@@ -0,0 +1,384 @@
+package com.hospital;
+
+import com.hospital.api.ApiServer;
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.BookingResult;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.PatientDAO;
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.transfer.DataFormat;
+import com.hospital.transfer.DataTransfer;
+import com.hospital.transfer.Dataset;
+import com.hospital.transfer.ImportReport;
+import com.hospital.util.ConsoleUtil;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.RecordPrinter;
+import com.hospital.util.SchemaManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Scriptable front end: started with arguments, Main runs one of these commands instead of the menu and exits.
+// Results go to stdout as text lines or, with --format jsonl, as one JSON object per line; errors and progress go
+// to stderr, so the output can be piped. The exit status is OK, FAILED when the command ran but did not fully
+// succeed (nothing matched, a booking was refused, records were rejected) or USAGE for bad arguments.
+final class Commands {
+    static final int OK = 0;
+    static final int FAILED = 1;
+    static final int USAGE = 2;
+
+    private static final String[] USAGE_LINES = {
+            "Usage: Main <command> [options] [--format text|jsonl]",
+            "",
+            "  list-patients [--after ID] [--limit N]",
+            "  search-patients --query TEXT [--limit N]",
+            "  add-patient --name NAME --phone PHONE --dob YYYY-MM-DD [--email EMAIL] [--address ADDRESS]",
+            "  list-appointments [--patient ID [--history]] [--doctor ID] [--date YYYY-MM-DD]",
+            "  schedule --patient ID --doctor ID --time \"YYYY-MM-DD HH:MM\" [--duration MINUTES] [--purpose TEXT]",
+            "  schedule --file appointments.csv|appointments.json",
+            "  cancel --id ID",
+            "  free-slots --doctor ID [--after \"YYYY-MM-DD HH:MM\"] [--count N] [--duration MINUTES]",
+            "  available-doctors --time \"YYYY-MM-DD HH:MM\" [--duration MINUTES]",
+            "  import patients|appointments --file FILE.csv|FILE.json",
+            "  export patients|appointments --file FILE.csv|FILE.json",
+            "  serve [--port PORT]",
+            "",
+            "With no command the interactive menu starts."
+    };
+    private static final Set<String> COMMANDS = Set.of("list-patients", "search-patients", "add-patient",
+            "list-appointments", "schedule", "cancel", "free-slots", "available-doctors", "import", "export", "serve");
+    private static final int PAGE_SIZE = 1000;
+    private static final int DEFAULT_RESULTS = 10;
+    private static final int STOP_DELAY_SECONDS = 2;
+
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private final DoctorDAO doctorDAO = DaoFactory.getDoctorDAO();
+    private final RecordPrinter out;
+    private Map<Integer, Doctor> doctors;
+
+    private Commands(RecordPrinter out) {
+        this.out = out;
+    }
+
+    static int run(String[] args) {
+        Arguments arguments;
+        RecordPrinter out;
+        try {
+            arguments = new Arguments(args);
+            if (arguments.command().equals("help") || arguments.command().equals("--help")) {
+                printUsage(null);
+                return OK;
+            }
+            if (!COMMANDS.contains(arguments.command())) {
+                throw new IllegalArgumentException("Unknown command " + arguments.command());
+            }
+            out = RecordPrinter.toStandardOut(arguments.has("format")
+                    ? RecordPrinter.Format.fromName(arguments.get("format")) : RecordPrinter.Format.TEXT);
+        } catch (IllegalArgumentException e) {
+            printUsage(e.getMessage());
+            return USAGE;
+        }
+
+        try {
+            SchemaManager.initialize();
+            return new Commands(out).execute(arguments);
+        } catch (IllegalArgumentException e) {
+            out.flush();
+            printUsage(e.getMessage());
+            return USAGE;
+        } catch (SQLException | IOException e) {
+            out.flush();
+            System.err.println("Error: " + e.getMessage());
+            return FAILED;
+        } finally {
+            out.flush();
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    private static void printUsage(String error) {
+        if (error != null) {
+            System.err.println("Error: " + error);
+        }
+        for (String line : USAGE_LINES) {
+            System.err.println(line);
+        }
+    }
+
+    private int execute(Arguments args) throws IOException {
+        switch (args.command()) {
+            case "list-patients":
+                return listPatients(args);
+            case "search-patients":
+                return searchPatients(args);
+            case "add-patient":
+                return addPatient(args);
+            case "list-appointments":
+                return listAppointments(args);
+            case "schedule":
+                return args.has("file") ? scheduleFromFile(args) : schedule(args);
+            case "cancel":
+                return cancel(args);
+            case "free-slots":
+                return freeSlots(args);
+            case "available-doctors":
+                return availableDoctors(args);
+            case "import":
+                return importFile(args);
+            case "serve":
+                return serve(args);
+            default:
+                return exportFile(args);
+        }
+    }
+
+    // Without --after or --limit every patient is streamed from one cursor rather than paged
+    private int listPatients(Arguments args) throws IOException {
+        args.allow(Set.of("after", "limit", "format"));
+        if (!args.has("after") && !args.has("limit")) {
+            return complete(patientDAO.forEachPatient(out::patient));
+        }
+        int afterId = args.getInt("after", 0);
+        int remaining = args.getInt("limit", Integer.MAX_VALUE);
+        while (remaining > 0) {
+            List<Patient> page = patientDAO.getPatientsAfter(afterId, Math.min(remaining, PAGE_SIZE));
+            page.forEach(out::patient);
+            if (page.size() < Math.min(remaining, PAGE_SIZE)) {
+                break;
+            }
+            remaining -= page.size();
+            afterId = page.get(page.size() - 1).getId();
+        }
+        return OK;
+    }
+
+    private int searchPatients(Arguments args) {
+        args.allow(Set.of("query", "limit", "format"));
+        List<Patient> results = patientDAO.searchPatients(args.require("query"), args.getInt("limit", DEFAULT_RESULTS));
+        results.forEach(out::patient);
+        return results.isEmpty() ? FAILED : OK;
+    }
+
+    private int addPatient(Arguments args) {
+        args.allow(Set.of("name", "phone", "dob", "email", "address", "format"));
+        Patient patient = new Patient(args.require("name"), args.require("phone"), args.get("email"),
+                args.requireDate("dob"), args.get("address"));
+        patientDAO.createPatient(patient);
+        if (patient.getId() == 0) {
+            System.err.println("Error: the patient could not be added");
+            return FAILED;
+        }
+        out.fields("result", "ADDED", "id", patient.getId());
+        return OK;
+    }
+
+    // One filter at a time, or --doctor with --date; with none the whole live table is streamed from a cursor
+    private int listAppointments(Arguments args) throws IOException {
+        args.allow(Set.of("patient", "history", "doctor", "date", "format"));
+        Map<Integer, Doctor> doctors = doctors();
+        if (args.has("patient")) {
+            if (args.has("doctor") || args.has("date")) {
+                throw new IllegalArgumentException("--patient cannot be combined with --doctor or --date");
+            }
+            return print(appointmentDAO.getAppointmentsByPatient(args.requireInt("patient"), args.has("history")));
+        }
+        if (args.has("doctor") && args.has("date")) {
+            return print(appointmentDAO.getAppointmentsByDoctorAndDate(args.requireInt("doctor"), args.requireDate("date")));
+        }
+        if (args.has("doctor")) {
+            return print(appointmentDAO.getAppointmentsByDoctor(args.requireInt("doctor")));
+        }
+        if (args.has("date")) {
+            return print(appointmentDAO.getAppointmentsByDate(args.requireDate("date")));
+        }
+        return complete(appointmentDAO.forEachAppointment(
+                appointment -> out.appointment(appointment, doctorName(doctors, appointment))));
+    }
+
+    // A streamed listing whose cursor failed part way has printed only some rows; fail rather than pass it off as whole
+    private static int complete(boolean complete) throws IOException {
+        if (!complete) {
+            throw new IOException("Reading from the database failed part way; the listing is incomplete");
+        }
+        return OK;
+    }
+
+    private int print(List<Appointment> appointments) {
+        Map<Integer, Doctor> doctors = doctors();
+        for (Appointment appointment : appointments) {
+            out.appointment(appointment, doctorName(doctors, appointment));
+        }
+        return appointments.isEmpty() ? FAILED : OK;
+    }
+
+    private int schedule(Arguments args) {
+        args.allow(Set.of("patient", "doctor", "time", "duration", "purpose", "format"));
+        Appointment appointment = new Appointment(args.requireInt("patient"), args.requireInt("doctor"),
+                args.requireDateTime("time"), args.get("purpose"));
+        appointment.setDurationMinutes(args.getInt("duration", Appointment.DEFAULT_DURATION_MINUTES));
+        String result = book(appointment);
+        if (result.equals(BookingResult.BOOKED.name())) {
+            out.fields("result", result, "id", appointment.getId());
+            return OK;
+        }
+        out.fields("result", result);
+        return FAILED;
+    }
+
+    // Books the file's appointments one at a time in file order, each with the same checks as schedule, and
+    // reports every record. Unlike import, a clash with an existing appointment is refused.
+    private int scheduleFromFile(Arguments args) throws IOException {
+        args.allow(Set.of("file", "format"));
+        Path file = Path.of(args.require("file"));
+        int[] failed = {0};
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            DataTransfer.readAppointments(DataFormat.fromFileName(file), in, new DataTransfer.RecordHandler<>() {
+                @Override
+                public void accept(long record, Appointment appointment) {
+                    String result = book(appointment);
+                    if (result.equals(BookingResult.BOOKED.name())) {
+                        out.fields("record", record, "result", result, "id", appointment.getId());
+                    } else {
+                        failed[0]++;
+                        out.fields("record", record, "result", result);
+                    }
+                }
+
+                @Override
+                public void reject(long record, String reason) {
+                    failed[0]++;
+                    out.fields("record", record, "result", "INVALID", "reason", reason);
+                }
+            });
+        }
+        return failed[0] == 0 ? OK : FAILED;
+    }
+
+    // The BookingResult name, or NO_SUCH_DOCTOR, OUTSIDE_WORKING_HOURS or NO_SUCH_PATIENT
+    private String book(Appointment appointment) {
+        Doctor doctor = doctors().get(appointment.getDoctorId());
+        if (doctor == null) {
+            return "NO_SUCH_DOCTOR";
+        }
+        if (!doctor.isWorking(appointment.getAppointmentTime(), appointment.getDurationMinutes())) {
+            return "OUTSIDE_WORKING_HOURS";
+        }
+        BookingResult result = Main.bookForPatient(appointment.getPatientId(), appointment);
+        return result == null ? "NO_SUCH_PATIENT" : result.name();
+    }
+
+    private int cancel(Arguments args) {
+        args.allow(Set.of("id", "format"));
+        int id = args.requireInt("id");
+        boolean cancelled = appointmentDAO.cancelAppointment(id);
+        out.fields("result", cancelled ? "CANCELLED" : "FAILED", "id", id);
+        return cancelled ? OK : FAILED;
+    }
+
+    private int freeSlots(Arguments args) {
+        args.allow(Set.of("doctor", "after", "count", "duration", "format"));
+        int doctorId = args.requireInt("doctor");
+        LocalDateTime after = args.has("after") ? args.requireDateTime("after") : LocalDateTime.now();
+        appointmentDAO.rebuildAvailability();
+        List<LocalDateTime> slots = appointmentDAO.findFreeSlots(doctorId, after, args.getInt("count", DEFAULT_RESULTS),
+                args.getInt("duration", Appointment.DEFAULT_DURATION_MINUTES));
+        for (LocalDateTime slot : slots) {
+            out.fields("doctor_id", doctorId, "start", slot.format(ConsoleUtil.DATE_TIME_FORMAT));
+        }
+        return slots.isEmpty() ? FAILED : OK;
+    }
+
+    private int availableDoctors(Arguments args) {
+        args.allow(Set.of("time", "duration", "format"));
+        LocalDateTime time = args.requireDateTime("time");
+        appointmentDAO.rebuildAvailability();
+        List<Integer> doctorIds = appointmentDAO.findDoctorsFreeAt(time,
+                args.getInt("duration", Appointment.DEFAULT_DURATION_MINUTES));
+        Map<Integer, Doctor> doctors = doctors();
+        for (int doctorId : doctorIds) {
+            Doctor doctor = doctors.get(doctorId);
+            if (doctor != null) {
+                out.fields("id", doctorId, "name", doctor.getName(), "specialization", doctor.getSpecialization());
+            }
+        }
+        return doctorIds.isEmpty() ? FAILED : OK;
+    }
+
+    private int importFile(Arguments args) throws IOException {
+        args.allow(Set.of("file", "format"));
+        Dataset dataset = Dataset.fromName(args.positional(0, "patients or appointments"));
+        ImportReport report = DataTransfer.importFile(dataset, Path.of(args.require("file")));
+        out.fields("read", report.getRead(), "imported", report.getImported(), "rejected", report.getRejected(),
+                "elapsed_ms", report.getElapsedMillis());
+        for (ImportReport.Rejection rejection : report.getRejections()) {
+            out.fields("record", rejection.getRecord(), "reason", rejection.getReason());
+        }
+        if (!report.isComplete()) {
+            out.flush();
+            System.err.println("Error: " + report.getAbortReason());
+        }
+        return report.isComplete() && report.getRejected() == 0 ? OK : FAILED;
+    }
+
+    private int exportFile(Arguments args) throws IOException {
+        args.allow(Set.of("file", "format"));
+        Dataset dataset = Dataset.fromName(args.positional(0, "patients or appointments"));
+        Path file = Path.of(args.require("file"));
+        long start = System.nanoTime();
+        long count = DataTransfer.exportFile(dataset, file);
+        out.fields("exported", count, "file", file, "elapsed_ms", (System.nanoTime() - start) / 1_000_000);
+        return OK;
+    }
+
+    // Runs the HTTP API (see ApiServer) until the process is stopped, with the same background jobs as the menu
+    private int serve(Arguments args) throws IOException {
+        args.allow(Set.of("port"));
+        appointmentDAO.rebuildAvailability();
+        patientDAO.rebuildSearchIndex();
+        Main.scheduleArchival();
+        Main.publishMetrics();
+        ApiServer server = new ApiServer(new InetSocketAddress(args.getInt("port", ApiServer.DEFAULT_PORT)));
+        // On Ctrl-C or SIGTERM: finish requests in progress, then close the pool before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(STOP_DELAY_SECONDS);
+            DatabaseConnection.closeConnection();
+        }, "api-shutdown"));
+        server.start();
+        System.err.println("Serving the HTTP API on port " + server.getAddress().getPort());
+        try {
+            server.awaitStop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return OK;
+    }
+
+    private Map<Integer, Doctor> doctors() {
+        if (doctors == null) {
+            doctors = new HashMap<>();
+            for (Doctor doctor : doctorDAO.getAllDoctors()) {
+                doctors.put(doctor.getId(), doctor);
+            }
+        }
+        return doctors;
+    }
+
+    private static String doctorName(Map<Integer, Doctor> doctors, Appointment appointment) {
+        Doctor doctor = doctors.get(appointment.getDoctorId());
+        return doctor == null ? null : doctor.getName();
+    }
+}
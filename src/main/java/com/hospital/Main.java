@@ -1,66 +1,110 @@
 package com.hospital;
 
 import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.BookingResult;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.DoctorDAO;
 import com.hospital.dao.PatientDAO;
+import com.hospital.metrics.Metrics;
 import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
 import com.hospital.model.Patient;
 import com.hospital.util.ConsoleUtil;
 import com.hospital.util.DatabaseConnection;
+import com.hospital.util.RecordPrinter;
+import com.hospital.util.SchemaManager;
+import com.hospital.util.TransactionManager;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
-    private static final PatientDAO patientDAO = new PatientDAO();
-    private static final AppointmentDAO appointmentDAO = new AppointmentDAO();
-    private static final String[] DOCTORS = {"Dr. Smith", "Dr. Johnson", "Dr. Williams", "Dr. Brown"};
+    private static final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+    private static final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private static final DoctorDAO doctorDAO = DaoFactory.getDoctorDAO();
+    private static final int PAGE_SIZE = 20;
+    private static final int SUGGESTED_SLOTS = 5;
+    private static final int SEARCH_RESULTS = 10;
+    // Completed and cancelled appointments older than this move to appointments_archive; 0 disables archival
+    private static final int ARCHIVE_AFTER_DAYS = Integer.getInteger("hospital.archive.afterDays", 365);
+    private static final int ARCHIVE_INTERVAL_HOURS = Integer.getInteger("hospital.archive.intervalHours", 24);
+    // Prometheus text is rewritten to this file every METRICS_EXPORT_SECONDS when set
+    private static final String METRICS_FILE = System.getProperty("hospital.metrics.file");
+    private static final int METRICS_EXPORT_SECONDS = Integer.getInteger("hospital.metrics.exportSeconds", 15);
 
+    // Listings go through one buffered writer; see printPatients and displayAppointments
+    private static final RecordPrinter console = RecordPrinter.toStandardOut(RecordPrinter.Format.TEXT);
+
+    // With arguments runs one command for scripts (see Commands) and exits with its status; without, the menu
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(Commands.run(args));
+        }
         initializeDatabase();
+        scheduleArchival();
+        publishMetrics();
         showMainMenu();
         DatabaseConnection.closeConnection();
     }
 
     private static void initializeDatabase() {
-        // This would typically be in a SQL script, but we'll create tables programmatically for simplicity
-        try (var conn = DatabaseConnection.getConnection();
-             var stmt = conn.createStatement()) {
-            
-            // Create patients table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS patients (" +
-                "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                "name VARCHAR(100) NOT NULL, " +
-                "phone VARCHAR(20) NOT NULL, " +
-                "email VARCHAR(100), " +
-                "date_of_birth DATE NOT NULL, " +
-                "address TEXT, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")"
-            );
-
-            // Create appointments table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS appointments (" +
-                "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                "patient_id INT NOT NULL, " +
-                "doctor_name VARCHAR(100) NOT NULL, " +
-                "appointment_time DATETIME NOT NULL, " +
-                "purpose TEXT, " +
-                "status VARCHAR(20) DEFAULT 'Scheduled', " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE" +
-                ")"
-            );
-            
+        try {
+            SchemaManager.initialize();
+            appointmentDAO.rebuildAvailability();
+            patientDAO.rebuildSearchIndex();
         } catch (Exception e) {
-            ConsoleUtil.displayError("Error initializing database: " + e.getMessage());
+            ConsoleUtil.displayError("Error initializing " + DatabaseConnection.getBackend() + " database: " + e.getMessage());
             System.exit(1);
         }
     }
 
+    static void scheduleArchival() {
+        if (ARCHIVE_AFTER_DAYS <= 0 || ARCHIVE_INTERVAL_HOURS <= 0) {
+            return;
+        }
+        ScheduledExecutorService archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "appointment-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        archiver.scheduleWithFixedDelay(
+                () -> appointmentDAO.archiveAppointments(LocalDate.now().minusDays(ARCHIVE_AFTER_DAYS).atStartOfDay()),
+                1, TimeUnit.HOURS.toMinutes(ARCHIVE_INTERVAL_HOURS), TimeUnit.MINUTES);
+    }
+
+    static void publishMetrics() {
+        if (!Metrics.ENABLED) {
+            return;
+        }
+        Metrics.registerMBean();
+        if (METRICS_FILE == null || METRICS_EXPORT_SECONDS <= 0) {
+            return;
+        }
+        Path file = Path.of(METRICS_FILE);
+        ScheduledExecutorService exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-exporter");
+            t.setDaemon(true);
+            return t;
+        });
+        exporter.scheduleWithFixedDelay(() -> {
+            try {
+                Metrics.exportTo(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, 0, METRICS_EXPORT_SECONDS, TimeUnit.SECONDS);
+    }
+
     private static void showMainMenu() {
         while (true) {
             ConsoleUtil.displayMenu();
@@ -89,6 +133,12 @@ public class Main {
                     cancelAppointment();
                     break;
                 case 8:
+                    findAvailableDoctors();
+                    break;
+                case 9:
+                    searchPatients();
+                    break;
+                case 10:
                     ConsoleUtil.displayMessage("Thank you for using Hospital Management System!");
                     return;
                 default:
@@ -114,92 +164,245 @@ public class Main {
 
     private static void viewAllPatients() {
         ConsoleUtil.displayHeader("All Patients");
-        var patients = patientDAO.getAllPatients();
+        int afterId = 0;
         
-        if (patients.isEmpty()) {
-            ConsoleUtil.displayMessage("No patients found.");
+        while (true) {
+            List<Patient> page = patientDAO.getPatientsAfter(afterId, PAGE_SIZE);
+            if (page.isEmpty() && afterId == 0) {
+                ConsoleUtil.displayMessage("No patients found.");
+                return;
+            }
+            
+            printPatients(page);
+            if (page.size() < PAGE_SIZE) {
+                return;
+            }
+            
+            String input = ConsoleUtil.getStringInput("Press Enter for more, or q to return");
+            if (input.equalsIgnoreCase("q")) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private static void searchPatients() {
+        ConsoleUtil.displayHeader("Search Patients");
+        String query = ConsoleUtil.getStringInput("Enter name, phone number or email");
+        
+        List<Patient> results = patientDAO.searchPatients(query, SEARCH_RESULTS);
+        if (results.isEmpty()) {
+            ConsoleUtil.displayMessage("No matching patients found.");
             return;
         }
+        printPatients(results);
+    }
+
+    // Pages through patients until the user types an ID; anything else is run as a search
+    private static int selectPatient() {
+        int afterId = 0;
+        List<Patient> page = patientDAO.getPatientsAfter(afterId, PAGE_SIZE);
+        if (page.isEmpty()) {
+            ConsoleUtil.displayMessage("No patients found.");
+        }
+        printPatients(page);
         
+        while (true) {
+            boolean hasMore = page.size() == PAGE_SIZE;
+            String input = ConsoleUtil.getStringInput(hasMore
+                    ? "\nEnter patient ID or search by name/phone/email (or press Enter for more)"
+                    : "\nEnter patient ID or search by name/phone/email");
+            if (input.isEmpty() && hasMore) {
+                afterId = page.get(page.size() - 1).getId();
+                page = patientDAO.getPatientsAfter(afterId, PAGE_SIZE);
+                printPatients(page);
+                continue;
+            }
+            
+            try {
+                return Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                List<Patient> results = patientDAO.searchPatients(input, SEARCH_RESULTS);
+                if (results.isEmpty()) {
+                    System.out.println("No matching patients found.");
+                } else {
+                    printPatients(results);
+                }
+            }
+        }
+    }
+
+    private static void printPatients(List<Patient> patients) {
         for (Patient patient : patients) {
-            System.out.printf("ID: %d, Name: %s, Phone: %s, Email: %s%n",
-                    patient.getId(), patient.getName(), patient.getPhone(), patient.getEmail());
+            console.patient(patient);
         }
+        console.flush();
     }
 
     private static void scheduleAppointment() {
         ConsoleUtil.displayHeader("Schedule New Appointment");
         
-        // Show list of patients
-        viewAllPatients();
-        int patientId = ConsoleUtil.getIntInput("\nEnter patient ID");
+        // Page through patients and pick one
+        int patientId = selectPatient();
         
         // Show available doctors
-        System.out.println("\nAvailable Doctors:");
-        for (int i = 0; i < DOCTORS.length; i++) {
-            System.out.printf("%d. %s%n", i + 1, DOCTORS[i]);
-        }
-        
-        int doctorChoice = ConsoleUtil.getIntInput("Select doctor (1-" + DOCTORS.length + ")");
-        if (doctorChoice < 1 || doctorChoice > DOCTORS.length) {
-            ConsoleUtil.displayError("Invalid doctor selection.");
+        System.out.println();
+        Doctor doctor = selectDoctor();
+        if (doctor == null) {
             return;
         }
         
-        String doctorName = DOCTORS[doctorChoice - 1];
-        LocalDateTime appointmentTime = ConsoleUtil.getDateTimeInput("Enter appointment date and time (YYYY-MM-DD HH:MM)");
+        int duration = getDurationInput();
+        LocalDateTime appointmentTime = getAppointmentTimeInput(doctor, duration);
         
         // Check if the time slot is available
-        if (!isTimeSlotAvailable(doctorName, appointmentTime)) {
+        if (!isTimeSlotAvailable(doctor, appointmentTime, duration)) {
             ConsoleUtil.displayError("The selected time slot is not available. Please choose another time.");
             return;
         }
         
         String purpose = ConsoleUtil.getStringInput("Enter purpose of visit");
         
-        Appointment appointment = new Appointment(patientId, doctorName, appointmentTime, purpose);
-        appointmentDAO.createAppointment(appointment);
+        Appointment appointment = new Appointment(patientId, doctor.getId(), appointmentTime, purpose);
+        appointment.setDurationMinutes(duration);
+        
+        // The slot may have been taken since the check above; booking re-checks atomically
+        BookingResult result = bookForPatient(patientId, appointment);
+        if (result == null) {
+            ConsoleUtil.displayError("No patient found with ID: " + patientId);
+            return;
+        }
+        switch (result) {
+            case BOOKED:
+                break;
+            case CONFLICT:
+                ConsoleUtil.displayError("The selected time slot was just booked by someone else. Please choose another time.");
+                return;
+            case INVALID:
+                ConsoleUtil.displayError("Appointments must last between 1 and " + Appointment.MAX_DURATION_MINUTES + " minutes.");
+                return;
+            default:
+                ConsoleUtil.displayError("Failed to schedule the appointment. Please try again.");
+                return;
+        }
         
         ConsoleUtil.displayMessage(String.format("Appointment scheduled successfully!%n" +
                 "Appointment ID: %d%n" +
                 "Doctor: %s%n" +
                 "Date/Time: %s",
                 appointment.getId(),
-                doctorName,
+                doctor.getName(),
                 appointmentTime.format(ConsoleUtil.DATE_TIME_FORMAT)));
     }
 
-    private static boolean isTimeSlotAvailable(String doctorName, LocalDateTime dateTime) {
-        // In a real application, you would check the database for existing appointments
-        // For simplicity, we'll just check if the time is during working hours (9 AM - 5 PM)
-        LocalTime time = dateTime.toLocalTime();
-        return !time.isBefore(LocalTime.of(9, 0)) && !time.isAfter(LocalTime.of(17, 0));
+    // Looks the patient up and books in one unit of work, so both commit together; null if there is no such patient.
+    // READ_COMMITTED so the overlap check is not read from the snapshot the patient lookup took (see bookAppointment).
+    public static BookingResult bookForPatient(int patientId, Appointment appointment) {
+        try {
+            return TransactionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, () ->
+                    patientDAO.getPatientById(patientId) == null ? null : appointmentDAO.bookAppointment(appointment));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return BookingResult.FAILED;
+        }
+    }
+
+    // Offers the doctor's next free slots and lets the user pick one or type any other time
+    private static LocalDateTime getAppointmentTimeInput(Doctor doctor, int duration) {
+        List<LocalDateTime> slots = appointmentDAO.findFreeSlots(doctor.getId(), LocalDateTime.now(), SUGGESTED_SLOTS, duration);
+        if (slots.isEmpty()) {
+            return ConsoleUtil.getDateTimeInput("Enter appointment date and time");
+        }
+        
+        System.out.println("\nNext available slots:");
+        for (int i = 0; i < slots.size(); i++) {
+            System.out.printf("%d. %s%n", i + 1, slots.get(i).format(ConsoleUtil.DATE_TIME_FORMAT));
+        }
+        
+        while (true) {
+            String input = ConsoleUtil.getStringInput("Select a slot (1-" + slots.size() + ") or press Enter to choose another time");
+            if (input.isEmpty()) {
+                return ConsoleUtil.getDateTimeInput("Enter appointment date and time");
+            }
+            try {
+                int choice = Integer.parseInt(input);
+                if (choice >= 1 && choice <= slots.size()) {
+                    return slots.get(choice - 1);
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+            System.out.println("Please enter a slot number between 1 and " + slots.size() + ".");
+        }
+    }
+
+    private static int getDurationInput() {
+        while (true) {
+            String input = ConsoleUtil.getStringInput("Enter duration in minutes (default " + Appointment.DEFAULT_DURATION_MINUTES + ")");
+            if (input.isEmpty()) {
+                return Appointment.DEFAULT_DURATION_MINUTES;
+            }
+            try {
+                int duration = Integer.parseInt(input);
+                if (duration > 0 && duration <= Appointment.MAX_DURATION_MINUTES) {
+                    return duration;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+            System.out.println("Please enter a number of minutes between 1 and " + Appointment.MAX_DURATION_MINUTES + ".");
+        }
+    }
+
+    private static boolean isTimeSlotAvailable(Doctor doctor, LocalDateTime dateTime, int durationMinutes) {
+        // The visit has to fit within the doctor's working hours and not overlap their other appointments
+        if (!doctor.isWorking(dateTime, durationMinutes)) {
+            return false;
+        }
+        return appointmentDAO.isSlotAvailable(doctor.getId(), dateTime, durationMinutes);
     }
 
     private static void viewAppointmentsByPatient() {
         ConsoleUtil.displayHeader("View Appointments by Patient");
         int patientId = ConsoleUtil.getIntInput("Enter patient ID");
         
-        var appointments = appointmentDAO.getAppointmentsByPatient(patientId);
+        // A patient's full record, including appointments already archived
+        var appointments = appointmentDAO.getAppointmentsByPatient(patientId, true);
         displayAppointments(appointments);
     }
 
     private static void viewAppointmentsByDoctor() {
         ConsoleUtil.displayHeader("View Appointments by Doctor");
         
+        Doctor doctor = selectDoctor();
+        if (doctor == null) {
+            return;
+        }
+        
+        var appointments = appointmentDAO.getAppointmentsByDoctor(doctor.getId());
+        displayAppointments(appointments);
+    }
+
+    private static Doctor selectDoctor() {
+        List<Doctor> doctors = doctorDAO.getAllDoctors();
+        if (doctors.isEmpty()) {
+            ConsoleUtil.displayError("No doctors found.");
+            return null;
+        }
+        
         System.out.println("Available Doctors:");
-        for (int i = 0; i < DOCTORS.length; i++) {
-            System.out.printf("%d. %s%n", i + 1, DOCTORS[i]);
+        for (int i = 0; i < doctors.size(); i++) {
+            Doctor doctor = doctors.get(i);
+            System.out.printf("%d. %s (%s, %s-%s)%n", i + 1, doctor.getName(), doctor.getSpecialization(),
+                    doctor.getWorkStart(), doctor.getWorkEnd());
         }
         
-        int choice = ConsoleUtil.getIntInput("Select doctor (1-" + DOCTORS.length + ")");
-        if (choice < 1 || choice > DOCTORS.length) {
+        int choice = ConsoleUtil.getIntInput("Select doctor (1-" + doctors.size() + ")");
+        if (choice < 1 || choice > doctors.size()) {
             ConsoleUtil.displayError("Invalid doctor selection.");
-            return;
+            return null;
         }
-        
-        var appointments = appointmentDAO.getAppointmentsByDoctor(DOCTORS[choice - 1]);
-        displayAppointments(appointments);
+        return doctors.get(choice - 1);
     }
 
     private static void viewAppointmentsByDate() {
@@ -210,6 +413,26 @@ public class Main {
         displayAppointments(appointments);
     }
 
+    private static void findAvailableDoctors() {
+        ConsoleUtil.displayHeader("Find Available Doctors");
+        LocalDateTime time = ConsoleUtil.getDateTimeInput("Enter date and time");
+        int duration = getDurationInput();
+        
+        List<Integer> doctorIds = appointmentDAO.findDoctorsFreeAt(time, duration);
+        if (doctorIds.isEmpty()) {
+            ConsoleUtil.displayMessage("No doctors are available at that time.");
+            return;
+        }
+        
+        System.out.println("\nAvailable Doctors:");
+        for (int doctorId : doctorIds) {
+            Doctor doctor = doctorDAO.getDoctorById(doctorId);
+            if (doctor != null) {
+                System.out.printf("- %s (%s)%n", doctor.getName(), doctor.getSpecialization());
+            }
+        }
+    }
+
     private static void cancelAppointment() {
         ConsoleUtil.displayHeader("Cancel Appointment");
         int appointmentId = ConsoleUtil.getIntInput("Enter appointment ID to cancel");
@@ -227,14 +450,14 @@ public class Main {
             return;
         }
         
+        Map<Integer, String> doctorNames = new HashMap<>();
+        for (Doctor doctor : doctorDAO.getAllDoctors()) {
+            doctorNames.put(doctor.getId(), doctor.getName());
+        }
+        
         for (Appointment appt : appointments) {
-            System.out.printf("ID: %d, Patient ID: %d, Doctor: %s, Time: %s, Purpose: %s, Status: %s%n",
-                    appt.getId(),
-                    appt.getPatientId(),
-                    appt.getDoctorName(),
-                    appt.getAppointmentTime().format(ConsoleUtil.DATE_TIME_FORMAT),
-                    appt.getPurpose(),
-                    appt.getStatus());
+            console.appointment(appt, doctorNames.get(appt.getDoctorId()));
         }
+        console.flush();
     }
 }
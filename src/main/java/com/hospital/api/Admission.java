@@ -0,0 +1,87 @@
+package com.hospital.api;
+
+import com.hospital.metrics.Metrics;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caps the requests working against the database at once. Every request may hold a pooled connection, so with
+// more of them in flight than the pool has connections the extra ones only queue inside ConnectionPool.borrow,
+// where they would wait up to the pool's borrow timeout while holding the client. Here a request waits at most
+// QUEUE_TIMEOUT for a permit, and only up to MAX_QUEUED requests wait at all; the rest are refused straight away
+// so the server answers 429 while it is still fast, instead of slowing down for everyone.
+final class Admission {
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    Admission(int maxConcurrent, int maxQueued, long queueTimeoutMillis) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Invalid admission limits: concurrent=" + maxConcurrent
+                    + ", queued=" + maxQueued);
+        }
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        Metrics.registerGauge("hospital_api_requests_in_flight", "API requests holding an admission permit.", false,
+                this::inFlight);
+        Metrics.registerGauge("hospital_api_requests_queued", "API requests waiting for an admission permit.", false,
+                queued::get);
+        Metrics.registerGauge("hospital_api_requests_admitted_total", "API requests admitted.", true,
+                admitted::sum);
+        Metrics.registerGauge("hospital_api_requests_rejected_total", "API requests refused with 429.", true,
+                rejected::sum);
+    }
+
+    // False when the request should be refused; a true return must be paired with release
+    boolean tryEnter() throws InterruptedException {
+        if (!permits.tryAcquire()) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+            try {
+                if (!permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    rejected.increment();
+                    return false;
+                }
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+        admitted.increment();
+        return true;
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    long admitted() {
+        return admitted.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,17 @@
+package com.hospital.api;
+
+// Ends a request with the given HTTP status and an {"error": message} body
+final class ApiException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,114 @@
+package com.hospital.api;
+
+import com.google.gson.JsonObject;
+import com.hospital.metrics.Metrics;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.PoolStats;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// HTTP/JSON front end over the DAOs, so one process can serve every desk at once instead of one clerk at the
+// console. Built on the JDK's HttpServer: each request runs on its own virtual thread, so a request blocked on the
+// database costs a few hundred bytes rather than a platform thread, and slow clients do not hold up others.
+//
+// Threads are no longer the limit, so Admission is: requests that reach the database are admitted MAX_CONCURRENT
+// at a time (by default one per pooled connection) and refused with 429 and Retry-After once MAX_QUEUED more are
+// waiting or one has waited QUEUE_TIMEOUT_MS. /metrics and /health bypass it so they still answer under load.
+// The endpoints are listed on PatientsHandler, AppointmentsHandler and DoctorsHandler.
+public class ApiServer {
+    public static final int DEFAULT_PORT = Integer.getInteger("hospital.api.port", 8080);
+    private static final int MAX_CONCURRENT = Integer.getInteger("hospital.api.maxConcurrent",
+            DatabaseConnection.getPool().getMaxSize());
+    private static final int MAX_QUEUED = Integer.getInteger("hospital.api.maxQueued", MAX_CONCURRENT * 4);
+    private static final long QUEUE_TIMEOUT_MS = Long.getLong("hospital.api.queueTimeoutMs", 250L);
+    // Pending connections the OS holds before the server accepts them
+    private static final int BACKLOG = Integer.getInteger("hospital.api.backlog", 1024);
+
+    static {
+        // With Nagle's algorithm on, each response's body waits on the client's delayed ACK of its headers, about
+        // 40 ms a request. Read once when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Admission admission = new Admission(MAX_CONCURRENT, MAX_QUEUED, QUEUE_TIMEOUT_MS);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    public ApiServer(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/patients", new PatientsHandler(admission));
+        server.createContext("/appointments", new AppointmentsHandler(admission));
+        server.createContext("/doctors", new DoctorsHandler(admission));
+        server.createContext("/health", new JsonHandler(null) {
+            @Override
+            void serve(Request request) throws IOException {
+                request.respond(200, health());
+            }
+        });
+        server.createContext("/metrics", new JsonHandler(null) {
+            @Override
+            void serve(Request request) throws IOException {
+                if (!Metrics.ENABLED) {
+                    throw new ApiException(404, "Metrics are disabled");
+                }
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+                try (Writer out = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+                    Metrics.writePrometheus(out);
+                }
+                request.send(200, "text/plain; version=0.0.4; charset=utf-8", buffer.toByteArray());
+            }
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    // Stops accepting, gives requests in progress up to delaySeconds to finish, then releases awaitStop
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        stopped.countDown();
+    }
+
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    private JsonObject health() {
+        PoolStats stats = DatabaseConnection.getPoolStats();
+        JsonObject pool = new JsonObject();
+        pool.addProperty("active", stats.getActive());
+        pool.addProperty("idle", stats.getIdle());
+        pool.addProperty("waiting", stats.getWaiters());
+        pool.addProperty("max", stats.getMaxSize());
+        JsonObject requests = new JsonObject();
+        requests.addProperty("in_flight", admission.inFlight());
+        requests.addProperty("queued", admission.queued());
+        requests.addProperty("max_concurrent", admission.maxConcurrent());
+        requests.addProperty("admitted", admission.admitted());
+        requests.addProperty("rejected", admission.rejected());
+        JsonObject health = new JsonObject();
+        health.addProperty("status", "UP");
+        health.add("pool", pool);
+        health.add("requests", requests);
+        return health;
+    }
+}
@@ -0,0 +1,188 @@
+package com.hospital.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hospital.Main;
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.BookingResult;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.UpdateResult;
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+import com.hospital.transfer.RecordCodec;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+// GET    /appointments?patient=ID[&history]       the patient's appointments, past ones too with history
+// GET    /appointments?doctor=ID[&date=YYYY-MM-DD] a doctor's appointments, optionally on one day
+// GET    /appointments?date=YYYY-MM-DD
+// POST   /appointments                            book; 201, or 409 when the doctor is already booked then
+// GET    /appointments/{id}
+// PATCH  /appointments/{id}                       change purpose or status; moving a visit is a cancel and a booking
+// DELETE /appointments/{id}                       cancel
+final class AppointmentsHandler extends JsonHandler {
+    private static final Set<String> UPDATABLE = Set.of("purpose", "status");
+
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+    private final DoctorDAO doctorDAO = DaoFactory.getDoctorDAO();
+    private final RecordCodec<Appointment> codec = RecordCodec.appointments();
+
+    AppointmentsHandler(Admission admission) {
+        super(admission);
+    }
+
+    @Override
+    void serve(Request request) throws IOException {
+        if (request.segmentCount() == 0) {
+            switch (request.method()) {
+                case "GET":
+                    list(request);
+                    return;
+                case "POST":
+                    book(request);
+                    return;
+                default:
+                    throw methodNotAllowed(request);
+            }
+        }
+        if (request.segmentCount() > 1) {
+            throw notFound(request);
+        }
+        int id = request.id(0);
+        switch (request.method()) {
+            case "GET":
+                request.respond(200, toJson(find(request, id)));
+                return;
+            case "PATCH":
+                update(request, id);
+                return;
+            case "DELETE":
+                cancel(request, id);
+                return;
+            default:
+                throw methodNotAllowed(request);
+        }
+    }
+
+    // One filter, or doctor with date; the whole table is not offered here (see the export command)
+    private void list(Request request) throws IOException {
+        List<Appointment> appointments;
+        if (request.has("patient")) {
+            if (request.has("doctor") || request.has("date")) {
+                throw new IllegalArgumentException("patient cannot be combined with doctor or date");
+            }
+            appointments = appointmentDAO.getAppointmentsByPatient(request.requireInt("patient"), request.has("history"));
+        } else if (request.has("doctor") && request.has("date")) {
+            appointments = appointmentDAO.getAppointmentsByDoctorAndDate(request.requireInt("doctor"),
+                    request.requireDate("date"));
+        } else if (request.has("doctor")) {
+            appointments = appointmentDAO.getAppointmentsByDoctor(request.requireInt("doctor"));
+        } else if (request.has("date")) {
+            appointments = appointmentDAO.getAppointmentsByDate(request.requireDate("date"));
+        } else {
+            throw new IllegalArgumentException("Filter by patient, doctor or date");
+        }
+        JsonArray json = new JsonArray(appointments.size());
+        for (Appointment appointment : appointments) {
+            json.add(toJson(appointment));
+        }
+        request.respond(200, json);
+    }
+
+    // The same checks as booking from the console: the doctor must exist and be working then, the patient must
+    // exist, and the doctor must be free (checked and booked in one transaction)
+    private void book(Request request) throws IOException {
+        Appointment appointment = Records.parse(codec, request.body());
+        Doctor doctor = doctorDAO.getDoctorById(appointment.getDoctorId());
+        if (doctor == null) {
+            throw new ApiException(422, "No doctor with id " + appointment.getDoctorId());
+        }
+        if (!doctor.isWorking(appointment.getAppointmentTime(), appointment.getDurationMinutes())) {
+            throw new ApiException(422, doctor.getName() + " is not working at that time");
+        }
+        BookingResult result = Main.bookForPatient(appointment.getPatientId(), appointment);
+        if (result == null) {
+            throw new ApiException(422, "No patient with id " + appointment.getPatientId());
+        }
+        switch (result) {
+            case BOOKED:
+                request.setHeader("Location", "/appointments/" + appointment.getId());
+                request.respond(201, toJson(appointment));
+                return;
+            case CONFLICT:
+                throw new ApiException(409, "The doctor already has an appointment at that time");
+            case INVALID:
+                throw new ApiException(422, "Appointments must last between 1 and "
+                        + Appointment.MAX_DURATION_MINUTES + " minutes");
+            default:
+                throw new ApiException(500, "The appointment could not be booked");
+        }
+    }
+
+    // Like a patient update: validated as a whole, written field by field
+    private void update(Request request, int id) throws IOException {
+        Appointment current = find(request, id);
+        JsonObject body = request.body();
+        Records.allow(body, UPDATABLE);
+        String[] values = codec.format(current);
+        BitSet present = Records.overlay(codec, body, values);
+
+        Appointment appointment = codec.parse(values);
+        appointment.setId(id);
+        appointment.setVersion(Records.version(body, current.getVersion()));
+        appointment.markUnchanged();
+        String[] columns = codec.columns();
+        for (int column = present.nextSetBit(0); column >= 0; column = present.nextSetBit(column + 1)) {
+            if (columns[column].equals("purpose")) {
+                appointment.setPurpose(appointment.getPurpose());
+            } else {
+                appointment.setStatus(appointment.getStatus());
+            }
+        }
+
+        UpdateResult result = appointmentDAO.updateAppointment(appointment);
+        switch (result) {
+            case UPDATED:
+                request.respond(200, toJson(appointment));
+                return;
+            case CONFLICT:
+                throw new ApiException(409, "The appointment was changed by someone else; reload it and try again");
+            case OVERLAP:
+                throw new ApiException(409, "The doctor already has an appointment at that time");
+            case NOT_FOUND:
+                throw notFound(request);
+            case INVALID:
+                throw new ApiException(422, "A " + current.getStatus().getLabel().toLowerCase()
+                        + " appointment cannot become " + appointment.getStatus().getLabel().toLowerCase());
+            default:
+                throw new ApiException(500, "The appointment could not be updated");
+        }
+    }
+
+    // Only a scheduled appointment can be cancelled
+    private void cancel(Request request, int id) throws IOException {
+        if (appointmentDAO.cancelAppointment(id)) {
+            request.respondEmpty(204);
+            return;
+        }
+        Appointment appointment = find(request, id);
+        throw new ApiException(409, "A " + appointment.getStatus().getLabel().toLowerCase()
+                + " appointment cannot be cancelled");
+    }
+
+    private Appointment find(Request request, int id) {
+        Appointment appointment = appointmentDAO.getAppointmentById(id);
+        if (appointment == null) {
+            throw notFound(request);
+        }
+        return appointment;
+    }
+
+    private JsonObject toJson(Appointment appointment) {
+        return Records.toJson(codec, appointment, appointment.getVersion());
+    }
+}
@@ -0,0 +1,105 @@
+package com.hospital.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// GET /doctors
+// GET /doctors/{id}
+// GET /doctors/{id}/free-slots?after=YYYY-MM-DDTHH:MM&count=N&duration=MINUTES   next free start times
+// GET /doctors/available?time=YYYY-MM-DDTHH:MM&duration=MINUTES                   doctors free at that time
+//
+// Free times come from the in-memory availability index, which ApiServer loads at startup
+final class DoctorsHandler extends JsonHandler {
+    private static final int DEFAULT_SLOTS = 10;
+    private static final int MAX_SLOTS = 100;
+
+    private final DoctorDAO doctorDAO = DaoFactory.getDoctorDAO();
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+
+    DoctorsHandler(Admission admission) {
+        super(admission);
+    }
+
+    @Override
+    void serve(Request request) throws IOException {
+        if (!request.method().equals("GET")) {
+            throw methodNotAllowed(request);
+        }
+        if (request.segmentCount() == 0) {
+            JsonArray json = new JsonArray();
+            for (Doctor doctor : doctorDAO.getAllDoctors()) {
+                json.add(toJson(doctor));
+            }
+            request.respond(200, json);
+        } else if (request.segmentCount() == 1 && request.segment(0).equals("available")) {
+            available(request);
+        } else if (request.segmentCount() == 1) {
+            request.respond(200, toJson(find(request, request.id(0))));
+        } else if (request.segmentCount() == 2 && request.segment(1).equals("free-slots")) {
+            freeSlots(request, find(request, request.id(0)));
+        } else {
+            throw notFound(request);
+        }
+    }
+
+    private void freeSlots(Request request, Doctor doctor) throws IOException {
+        LocalDateTime after = request.has("after") ? request.requireDateTime("after") : LocalDateTime.now();
+        List<LocalDateTime> slots = appointmentDAO.findFreeSlots(doctor.getId(), after,
+                request.getInt("count", DEFAULT_SLOTS, MAX_SLOTS), duration(request));
+        JsonArray json = new JsonArray(slots.size());
+        for (LocalDateTime slot : slots) {
+            json.add(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(slot));
+        }
+        request.respond(200, json);
+    }
+
+    private void available(Request request) throws IOException {
+        List<Integer> doctorIds = appointmentDAO.findDoctorsFreeAt(request.requireDateTime("time"), duration(request));
+        Map<Integer, Doctor> doctors = new HashMap<>();
+        for (Doctor doctor : doctorDAO.getAllDoctors()) {
+            doctors.put(doctor.getId(), doctor);
+        }
+        JsonArray json = new JsonArray(doctorIds.size());
+        for (int doctorId : doctorIds) {
+            Doctor doctor = doctors.get(doctorId);
+            if (doctor != null) {
+                json.add(toJson(doctor));
+            }
+        }
+        request.respond(200, json);
+    }
+
+    private static int duration(Request request) {
+        return request.getInt("duration", Appointment.DEFAULT_DURATION_MINUTES, Appointment.MAX_DURATION_MINUTES);
+    }
+
+    private Doctor find(Request request, int id) {
+        Doctor doctor = doctorDAO.getDoctorById(id);
+        if (doctor == null) {
+            throw notFound(request);
+        }
+        return doctor;
+    }
+
+    private static JsonObject toJson(Doctor doctor) {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", doctor.getId());
+        json.addProperty("name", doctor.getName());
+        json.addProperty("specialization", doctor.getSpecialization());
+        json.addProperty("work_start", doctor.getWorkStart().toString());
+        json.addProperty("work_end", doctor.getWorkEnd().toString());
+        return json;
+    }
+}
@@ -0,0 +1,75 @@
+package com.hospital.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+
+// Common request handling: admission (when the handler reaches the database), and mapping failures to status codes.
+// IllegalArgumentException is the client's mistake and answers 400 with its message; anything else unexpected is
+// logged and answers 500 without details.
+abstract class JsonHandler implements HttpHandler {
+    private final Admission admission;
+
+    // admission may be null for handlers that never touch the database
+    JsonHandler(Admission admission) {
+        this.admission = admission;
+    }
+
+    abstract void serve(Request request) throws IOException;
+
+    @Override
+    public final void handle(HttpExchange exchange) {
+        Request request = new Request(exchange);
+        try {
+            if (!request.isUnderContext()) {
+                throw new ApiException(404, "No such resource " + request.path());
+            }
+            if (admission == null) {
+                serve(request);
+            } else if (admission.tryEnter()) {
+                try {
+                    serve(request);
+                } finally {
+                    admission.release();
+                }
+            } else {
+                request.setHeader("Retry-After", "1");
+                request.respondError(429, "Server busy; retry shortly");
+            }
+        } catch (ApiException e) {
+            respondError(request, e.getStatus(), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            respondError(request, 400, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respondError(request, 503, "Server shutting down");
+        } catch (IOException e) {
+            // The client went away; nothing left to answer
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            respondError(request, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respondError(Request request, int status, String message) {
+        if (request.hasResponded()) {
+            return;
+        }
+        try {
+            request.respondError(status, message);
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    static ApiException methodNotAllowed(Request request) {
+        return new ApiException(405, request.method() + " is not supported on " + request.path());
+    }
+
+    static ApiException notFound(Request request) {
+        return new ApiException(404, "No such resource " + request.path());
+    }
+}
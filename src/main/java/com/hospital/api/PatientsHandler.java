@@ -0,0 +1,153 @@
+package com.hospital.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.UpdateResult;
+import com.hospital.model.Patient;
+import com.hospital.transfer.RecordCodec;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+
+// GET    /patients?after=ID&limit=N   a page in id order; pass the last id of one page as after for the next
+// GET    /patients?q=TEXT&limit=N     search by name, phone or email
+// POST   /patients                    register; 201 with the new patient
+// GET    /patients/{id}
+// PATCH  /patients/{id}               change the fields given; with "version" the change is refused (409) if the
+//                                     patient has been updated since that version
+// DELETE /patients/{id}
+final class PatientsHandler extends JsonHandler {
+    private static final int DEFAULT_PAGE = 100;
+    private static final int MAX_PAGE = 1000;
+    private static final int DEFAULT_RESULTS = 10;
+
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+    private final RecordCodec<Patient> codec = RecordCodec.patients();
+
+    PatientsHandler(Admission admission) {
+        super(admission);
+    }
+
+    @Override
+    void serve(Request request) throws IOException {
+        if (request.segmentCount() == 0) {
+            switch (request.method()) {
+                case "GET":
+                    list(request);
+                    return;
+                case "POST":
+                    create(request);
+                    return;
+                default:
+                    throw methodNotAllowed(request);
+            }
+        }
+        if (request.segmentCount() > 1) {
+            throw notFound(request);
+        }
+        int id = request.id(0);
+        switch (request.method()) {
+            case "GET":
+                request.respond(200, toJson(find(request, id)));
+                return;
+            case "PATCH":
+                update(request, id);
+                return;
+            case "DELETE":
+                if (!patientDAO.deletePatient(id)) {
+                    throw notFound(request);
+                }
+                request.respondEmpty(204);
+                return;
+            default:
+                throw methodNotAllowed(request);
+        }
+    }
+
+    private void list(Request request) throws IOException {
+        List<Patient> patients;
+        if (request.has("q")) {
+            patients = patientDAO.searchPatients(request.require("q"), request.getInt("limit", DEFAULT_RESULTS, MAX_PAGE));
+        } else {
+            int afterId = request.has("after") ? request.requireInt("after") : 0;
+            patients = patientDAO.getPatientsAfter(afterId, request.getInt("limit", DEFAULT_PAGE, MAX_PAGE));
+        }
+        JsonArray json = new JsonArray(patients.size());
+        for (Patient patient : patients) {
+            json.add(toJson(patient));
+        }
+        request.respond(200, json);
+    }
+
+    private void create(Request request) throws IOException {
+        Patient patient = Records.parse(codec, request.body());
+        patientDAO.createPatient(patient);
+        if (patient.getId() == 0) {
+            throw new ApiException(500, "The patient could not be added");
+        }
+        request.setHeader("Location", "/patients/" + patient.getId());
+        request.respond(201, toJson(patient));
+    }
+
+    // The body is laid over the stored patient and the result validated as a whole, but only the fields the body
+    // names are written, so concurrent changes to other fields are not overwritten
+    private void update(Request request, int id) throws IOException {
+        Patient current = find(request, id);
+        JsonObject body = request.body();
+        String[] values = codec.format(current);
+        BitSet present = Records.overlay(codec, body, values);
+        Patient merged = codec.parse(values);
+
+        Patient patient = new Patient(current);
+        patient.markUnchanged();
+        patient.setVersion(Records.version(body, current.getVersion()));
+        String[] columns = codec.columns();
+        for (int column = present.nextSetBit(0); column >= 0; column = present.nextSetBit(column + 1)) {
+            switch (columns[column]) {
+                case "name":
+                    patient.setName(merged.getName());
+                    break;
+                case "phone":
+                    patient.setPhone(merged.getPhone());
+                    break;
+                case "email":
+                    patient.setEmail(merged.getEmail());
+                    break;
+                case "date_of_birth":
+                    patient.setDateOfBirth(merged.getDateOfBirth());
+                    break;
+                default:
+                    patient.setAddress(merged.getAddress());
+                    break;
+            }
+        }
+
+        UpdateResult result = patientDAO.updatePatient(patient);
+        switch (result) {
+            case UPDATED:
+                request.respond(200, toJson(patient));
+                return;
+            case CONFLICT:
+                throw new ApiException(409, "The patient was changed by someone else; reload it and try again");
+            case NOT_FOUND:
+                throw notFound(request);
+            default:
+                throw new ApiException(500, "The patient could not be updated");
+        }
+    }
+
+    private Patient find(Request request, int id) {
+        Patient patient = patientDAO.getPatientById(id);
+        if (patient == null) {
+            throw notFound(request);
+        }
+        return patient;
+    }
+
+    private JsonObject toJson(Patient patient) {
+        return Records.toJson(codec, patient, patient.getVersion());
+    }
+}
@@ -0,0 +1,90 @@
+package com.hospital.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.hospital.transfer.RecordCodec;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+
+// Patients and appointments as JSON objects, converted through the bulk transfer codecs: the fields are the export
+// columns (id, name, date_of_birth, ...) plus version, and a request body is validated exactly as an imported record.
+final class Records {
+    private Records() {
+    }
+
+    static <T> JsonObject toJson(RecordCodec<T> codec, T item, int version) {
+        String[] columns = codec.columns();
+        boolean[] numeric = codec.numeric();
+        String[] values = codec.format(item);
+        JsonObject json = new JsonObject();
+        for (int i = 0; i < columns.length; i++) {
+            if (values[i] == null) {
+                json.add(columns[i], null);
+            } else {
+                json.add(columns[i], numeric[i] ? new JsonPrimitive(Long.parseLong(values[i])) : new JsonPrimitive(values[i]));
+            }
+        }
+        json.addProperty("version", version);
+        return json;
+    }
+
+    // Copies the body's fields over values, which are in the codec's column order, and returns the columns the body
+    // set. id and version are left to the caller; any other field the codec does not know is refused, so a
+    // mistyped name is not silently dropped.
+    static BitSet overlay(RecordCodec<?> codec, JsonObject body, String[] values) {
+        String[] columns = codec.columns();
+        BitSet present = new BitSet(columns.length);
+        for (Map.Entry<String, JsonElement> field : body.entrySet()) {
+            String name = field.getKey();
+            if (name.equals("id") || name.equals("version")) {
+                continue;
+            }
+            int column = Arrays.asList(columns).indexOf(name);
+            if (column < 0) {
+                throw new IllegalArgumentException("Unknown field " + name);
+            }
+            JsonElement value = field.getValue();
+            if (value.isJsonNull()) {
+                values[column] = null;
+            } else if (value.isJsonPrimitive()) {
+                values[column] = value.getAsString();
+            } else {
+                throw new IllegalArgumentException(name + " must be a string or a number");
+            }
+            present.set(column);
+        }
+        return present;
+    }
+
+    static <T> T parse(RecordCodec<T> codec, JsonObject body) {
+        String[] values = new String[codec.columns().length];
+        overlay(codec, body, values);
+        return codec.parse(values);
+    }
+
+    // The body's version, for an update that must not overwrite a newer change; current when the body has none
+    static int version(JsonObject body, int current) {
+        JsonElement version = body.get("version");
+        if (version == null || version.isJsonNull()) {
+            return current;
+        }
+        try {
+            return version.getAsInt();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("version must be a whole number");
+        }
+    }
+
+    // Refuses fields other than the given ones (plus id and version), e.g. the fields an update may change
+    static void allow(JsonObject body, Set<String> names) {
+        for (String name : body.keySet()) {
+            if (!names.contains(name) && !name.equals("id") && !name.equals("version")) {
+                throw new IllegalArgumentException(name + " cannot be changed here");
+            }
+        }
+    }
+}
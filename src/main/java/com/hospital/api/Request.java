@@ -0,0 +1,208 @@
+package com.hospital.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One HTTP exchange: the path below the handler's context split into segments, the query parameters and the JSON
+// body, plus the response. Problems with the request are thrown as IllegalArgumentException (400) or ApiException.
+final class Request {
+    // Null fields are written out, so every record has the same fields
+    private static final Gson GSON = new GsonBuilder().serializeNulls().create();
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpExchange exchange;
+    private final List<String> segments = new ArrayList<>();
+    private final Map<String, String> query = new HashMap<>();
+    private final boolean underContext;
+    private boolean responded;
+
+    Request(HttpExchange exchange) {
+        this.exchange = exchange;
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.substring(exchange.getHttpContext().getPath().length());
+        // The context /patients also receives /patientsfoo
+        underContext = rest.isEmpty() || rest.startsWith("/");
+        for (String segment : rest.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                String name = equals < 0 ? pair : pair.substring(0, equals);
+                String value = equals < 0 ? "true" : pair.substring(equals + 1);
+                query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    boolean isUnderContext() {
+        return underContext;
+    }
+
+    String path() {
+        return exchange.getRequestURI().getPath();
+    }
+
+    String method() {
+        return exchange.getRequestMethod();
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    String segment(int index) {
+        return segments.get(index);
+    }
+
+    // The segment as a record id, e.g. 42 in /patients/42
+    int id(int index) {
+        String value = segments.get(index);
+        try {
+            int id = Integer.parseInt(value);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new ApiException(404, "No such resource " + path());
+    }
+
+    boolean has(String name) {
+        return query.containsKey(name);
+    }
+
+    String get(String name) {
+        return query.get(name);
+    }
+
+    String require(String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Query parameter " + name + " is required");
+        }
+        return value;
+    }
+
+    int getInt(String name, int defaultValue, int max) {
+        if (!has(name)) {
+            return defaultValue;
+        }
+        int value = requireInt(name);
+        if (value < 1 || value > max) {
+            throw new IllegalArgumentException(name + " must be between 1 and " + max);
+        }
+        return value;
+    }
+
+    int requireInt(String name) {
+        String value = require(name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number: " + value);
+        }
+    }
+
+    LocalDate requireDate(String name) {
+        String value = require(name);
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date as YYYY-MM-DD: " + value);
+        }
+    }
+
+    // ISO, 2024-05-01T09:30; a space may stand in for the T
+    LocalDateTime requireDateTime(String name) {
+        String value = require(name);
+        try {
+            return LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date and time as YYYY-MM-DDTHH:MM: " + value);
+        }
+    }
+
+    JsonObject body() throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body is over " + MAX_BODY_BYTES + " bytes");
+        }
+        try {
+            JsonElement body = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8));
+            if (!body.isJsonObject()) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+            return body.getAsJsonObject();
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Request body is not valid JSON");
+        }
+    }
+
+    // The body is serialized up front so the response carries a Content-Length and the connection can be reused
+    void respond(int status, JsonElement body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8))) {
+            GSON.toJson(body, writer);
+        }
+        send(status, "application/json", buffer.toByteArray());
+    }
+
+    void respondEmpty(int status) throws IOException {
+        responded = true;
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    void respondError(int status, String message) throws IOException {
+        JsonObject body = new JsonObject();
+        body.addProperty("error", message);
+        respond(status, body);
+    }
+
+    void send(int status, String contentType, byte[] body) throws IOException {
+        responded = true;
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    void setHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    boolean hasResponded() {
+        return responded;
+    }
+}
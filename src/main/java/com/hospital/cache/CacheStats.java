@@ -0,0 +1,54 @@
+package com.hospital.cache;
+
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long loads;
+    private final long totalLoadNanos;
+    private final int size;
+
+    public CacheStats(long hits, long misses, long evictions, long loads, long totalLoadNanos, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.loads = loads;
+        this.totalLoadNanos = totalLoadNanos;
+        this.size = size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public double getAverageLoadMillis() {
+        return loads == 0 ? 0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{size=%d, hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, loads=%d, avgLoad=%.2fms}",
+                size, hits, misses, getHitRatio(), evictions, loads, getAverageLoadMillis());
+    }
+}
@@ -0,0 +1,102 @@
+package com.hospital.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+// Size- and TTL-bounded LRU map. Every invalidation bumps a version number; a value loaded from the database is
+// only stored if no invalidation happened since the load started, so a slow reader can never re-insert data that
+// a concurrent writer has just made stale.
+public class LruCache<K, V> {
+    private final int maxSize;
+    private final long defaultTtlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long loads;
+    private long totalLoadNanos;
+
+    public LruCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.defaultTtlMillis = ttlMillis;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    // Take this before loading; pass it to putIfUnchanged afterwards
+    public synchronized long currentVersion() {
+        return version;
+    }
+
+    public boolean putIfUnchanged(K key, V value, long loadStartVersion) {
+        return putIfUnchanged(key, value, loadStartVersion, defaultTtlMillis);
+    }
+
+    public synchronized boolean putIfUnchanged(K key, V value, long loadStartVersion, long ttlMillis) {
+        if (version != loadStartVersion || maxSize <= 0) {
+            return false;
+        }
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        evictOverflow();
+        return true;
+    }
+
+    public synchronized void recordLoad(long nanos) {
+        loads++;
+        totalLoadNanos += nanos;
+    }
+
+    public synchronized void invalidate(K key) {
+        version++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        version++;
+        entries.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value));
+    }
+
+    public synchronized void invalidateAll() {
+        version++;
+        entries.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, loads, totalLoadNanos, entries.size());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.hospital.cache;
+
+import com.hospital.model.Patient;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Bounded LRU cache in front of patient point lookups. Unknown ids are cached as empty entries for a short
+// time so repeated lookups of a bad id do not hit the database. Callers always receive their own copy.
+public class PatientCache {
+    private static final int MAX_ENTRIES = Integer.getInteger("hospital.cache.patient.maxEntries", 10_000);
+    private static final long TTL_MS = Long.getLong("hospital.cache.patient.ttlMs", 300_000L);
+    private static final long NEGATIVE_TTL_MS = Long.getLong("hospital.cache.patient.negativeTtlMs", 5_000L);
+
+    public interface Loader {
+        Patient load(int id) throws SQLException;
+    }
+
+    public interface BulkLoader {
+        Map<Integer, Patient> load(Collection<Integer> ids) throws SQLException;
+    }
+
+    private final LruCache<Integer, Optional<Patient>> cache = new LruCache<>(MAX_ENTRIES, TTL_MS);
+
+    public Patient get(int id, Loader loader) throws SQLException {
+        Optional<Patient> cached = cache.get(id);
+        if (cached == null) {
+            long version = cache.currentVersion();
+            long start = System.nanoTime();
+            Patient loaded = loader.load(id);
+            cache.recordLoad(System.nanoTime() - start);
+            cached = Optional.ofNullable(loaded);
+            store(id, cached, version);
+        }
+        return cached.map(Patient::new).orElse(null);
+    }
+
+    // Returns the patients that exist, keyed by id; misses are fetched with a single bulk load
+    public Map<Integer, Patient> getAll(Collection<Integer> ids, BulkLoader loader) throws SQLException {
+        Map<Integer, Patient> result = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            Optional<Patient> cached = cache.get(id);
+            if (cached == null) {
+                missing.add(id);
+            } else {
+                cached.ifPresent(patient -> result.put(id, new Patient(patient)));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long version = cache.currentVersion();
+            long start = System.nanoTime();
+            Map<Integer, Patient> loaded = loader.load(missing);
+            cache.recordLoad(System.nanoTime() - start);
+            for (Integer id : missing) {
+                Patient patient = loaded.get(id);
+                store(id, Optional.ofNullable(patient), version);
+                if (patient != null) {
+                    result.put(id, new Patient(patient));
+                }
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(int id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    private void store(int id, Optional<Patient> value, long version) {
+        // Keep a private copy so later changes to the caller's object cannot leak into the cache
+        cache.putIfUnchanged(id, value.map(Patient::new), version, value.isPresent() ? TTL_MS : NEGATIVE_TTL_MS);
+    }
+}
@@ -0,0 +1,88 @@
+package com.hospital.cache;
+
+import com.hospital.model.Appointment;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read-through cache of schedule listings keyed by (doctor, day). A null doctor means "all doctors" and a null
+// date means "all dates", so the same cache serves the per-day, per-doctor and per-doctor-day views.
+// Listings are held as compact arrays of private copies; callers always receive their own list of copies.
+public class ScheduleCache {
+    private static final int MAX_ENTRIES = Integer.getInteger("hospital.cache.schedule.maxEntries", 1000);
+    private static final long TTL_MS = Long.getLong("hospital.cache.schedule.ttlMs", 60_000L);
+
+    public interface Loader {
+        List<Appointment> load() throws SQLException;
+    }
+
+    private record Key(Integer doctorId, LocalDate date) {
+    }
+
+    private final LruCache<Key, Appointment[]> cache = new LruCache<>(MAX_ENTRIES, TTL_MS);
+
+    public List<Appointment> get(Integer doctorId, LocalDate date, Loader loader) throws SQLException {
+        Key key = new Key(doctorId, date);
+        Appointment[] appointments = cache.get(key);
+        if (appointments == null) {
+            long version = cache.currentVersion();
+            long start = System.nanoTime();
+            List<Appointment> loaded = loader.load();
+            cache.recordLoad(System.nanoTime() - start);
+            // Keep private copies so later changes to the loaded objects cannot leak into the cache
+            appointments = loaded.stream().map(Appointment::new).toArray(Appointment[]::new);
+            cache.putIfUnchanged(key, appointments, version);
+            return loaded;
+        }
+        List<Appointment> copies = new ArrayList<>(appointments.length);
+        for (Appointment appointment : appointments) {
+            copies.add(new Appointment(appointment));
+        }
+        return copies;
+    }
+
+    // Drops every listing the appointment belongs to now, and every listing it appeared in before the write
+    public void onWrite(Appointment appointment) {
+        int doctorId = appointment.getDoctorId();
+        LocalDate date = appointment.getAppointmentTime() == null ? null : appointment.getAppointmentTime().toLocalDate();
+        int id = appointment.getId();
+        cache.invalidateIf((key, listing) ->
+                ((key.doctorId() == null || key.doctorId() == doctorId)
+                        && (date == null || key.date() == null || key.date().equals(date)))
+                        || contains(listing, id));
+    }
+
+    public void invalidateAppointment(int appointmentId) {
+        cache.invalidateIf((key, listing) -> contains(listing, appointmentId));
+    }
+
+    public void invalidatePatient(int patientId) {
+        cache.invalidateIf((key, listing) -> {
+            for (Appointment appointment : listing) {
+                if (appointment.getPatientId() == patientId) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    private static boolean contains(Appointment[] listing, int appointmentId) {
+        for (Appointment appointment : listing) {
+            if (appointment.getId() == appointmentId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
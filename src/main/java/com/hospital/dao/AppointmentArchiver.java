@@ -0,0 +1,112 @@
+package com.hospital.dao;
+
+import com.hospital.model.AppointmentStatus;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+// Moves finished appointments out of the hot appointments table into appointments_archive, so schedules, booking
+// checks and their indexes only ever see recent and upcoming rows. Rows move BATCH_SIZE at a time, each batch in its
+// own short transaction, with a pause between batches so the job never holds many locks or starves live traffic.
+class AppointmentArchiver {
+    static final int BATCH_SIZE = Integer.getInteger("hospital.archive.batchSize", 500);
+    static final long PAUSE_MILLIS = Long.getLong("hospital.archive.pauseMillis", 50);
+
+    private static final String ARCHIVABLE = "status IN (" + terminalCodes() + ") AND appointment_time < ?";
+    // Served by idx_appointments_status_time
+    private static final String SELECT_BATCH_SQL = "SELECT id FROM appointments WHERE " + ARCHIVABLE + " LIMIT ?";
+    // Copy and delete re-check the condition, so a row that changed after the batch was picked stays where it is
+    private static final String COPY_SQL = "INSERT INTO appointments_archive (" + AppointmentRowMapper.COLUMNS +
+            ", created_at) SELECT " + AppointmentRowMapper.COLUMNS + ", created_at FROM appointments WHERE " +
+            ARCHIVABLE + " AND id IN ";
+    private static final String DELETE_SQL = "DELETE FROM appointments WHERE " + ARCHIVABLE + " AND id IN ";
+
+    // Archives every terminal appointment that started before cutoff and returns how many rows moved
+    static int archiveBefore(LocalDateTime cutoff) {
+        int moved = 0;
+
+        // Always a connection of its own: batches commit as they go and never join a caller's unit of work
+        try (Connection conn = DatabaseConnection.getPool().borrow()) {
+            conn.setAutoCommit(false);
+            while (true) {
+                List<Integer> ids = selectBatch(conn, cutoff);
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    break;
+                }
+                String in = "(" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+                int copied = executeForIds(conn, COPY_SQL + in, cutoff, ids);
+                int deleted = executeForIds(conn, DELETE_SQL + in, cutoff, ids);
+                if (copied != deleted) {
+                    // Only possible if a row changed between the two statements; try the batch again
+                    conn.rollback();
+                    continue;
+                }
+                conn.commit();
+                moved += deleted;
+
+                if (ids.size() < BATCH_SIZE || !pause()) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return moved;
+    }
+
+    private static List<Integer> selectBatch(Connection conn, LocalDateTime cutoff) throws SQLException {
+        List<Integer> ids = new ArrayList<>(BATCH_SIZE);
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_BATCH_SQL)) {
+            stmt.setObject(1, cutoff);
+            stmt.setInt(2, BATCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static int executeForIds(Connection conn, String sql, LocalDateTime cutoff, List<Integer> ids)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setObject(1, cutoff);
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 2, ids.get(i));
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    // False when the job has been interrupted and should stop after the batch it just committed
+    private static boolean pause() {
+        try {
+            Thread.sleep(PAUSE_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String terminalCodes() {
+        StringJoiner codes = new StringJoiner(", ");
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            if (status.isTerminal()) {
+                codes.add(String.valueOf(status.getCode()));
+            }
+        }
+        return codes.toString();
+    }
+}
@@ -1,165 +1,58 @@
 package com.hospital.dao;
 
 import com.hospital.model.Appointment;
-import com.hospital.util.DatabaseConnection;
+import com.hospital.model.AppointmentStatus;
 
-import java.sql.*;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
-public class AppointmentDAO {
-    
-    public void createAppointment(Appointment appointment) {
-        String sql = "INSERT INTO appointments (patient_id, doctor_name, appointment_time, purpose, status) " +
-                    "VALUES (?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setInt(1, appointment.getPatientId());
-            stmt.setString(2, appointment.getDoctorName());
-            stmt.setTimestamp(3, Timestamp.valueOf(appointment.getAppointmentTime()));
-            stmt.setString(4, appointment.getPurpose());
-            stmt.setString(5, appointment.getStatus());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        appointment.setId(rs.getInt(1));
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-    
-    public Appointment getAppointmentById(int id) {
-        String sql = "SELECT * FROM appointments WHERE id = ?";
-        Appointment appointment = null;
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                appointment = extractAppointmentFromResultSet(rs);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
-        return appointment;
-    }
-    
-    public List<Appointment> getAppointmentsByPatient(int patientId) {
-        List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments WHERE patient_id = ? ORDER BY appointment_time";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, patientId);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                appointments.add(extractAppointmentFromResultSet(rs));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
-        return appointments;
-    }
-    
-    public List<Appointment> getAppointmentsByDoctor(String doctorName) {
-        List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments WHERE doctor_name = ? AND status = 'Scheduled' ORDER BY appointment_time";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, doctorName);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                appointments.add(extractAppointmentFromResultSet(rs));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
-        return appointments;
-    }
-    
-    public List<Appointment> getAppointmentsByDate(LocalDate date) {
-        List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments WHERE DATE(appointment_time) = ? AND status = 'Scheduled' ORDER BY appointment_time";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setDate(1, Date.valueOf(date));
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                appointments.add(extractAppointmentFromResultSet(rs));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
-        return appointments;
-    }
-    
-    public boolean updateAppointment(Appointment appointment) {
-        String sql = "UPDATE appointments SET patient_id = ?, doctor_name = ?, " +
-                    "appointment_time = ?, purpose = ?, status = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, appointment.getPatientId());
-            stmt.setString(2, appointment.getDoctorName());
-            stmt.setTimestamp(3, Timestamp.valueOf(appointment.getAppointmentTime()));
-            stmt.setString(4, appointment.getPurpose());
-            stmt.setString(5, appointment.getStatus());
-            stmt.setInt(6, appointment.getId());
-            
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-    
-    public boolean cancelAppointment(int appointmentId) {
-        String sql = "UPDATE appointments SET status = 'Cancelled' WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, appointmentId);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-    
-    private Appointment extractAppointmentFromResultSet(ResultSet rs) throws SQLException {
-        Appointment appointment = new Appointment();
-        appointment.setId(rs.getInt("id"));
-        appointment.setPatientId(rs.getInt("patient_id"));
-        appointment.setDoctorName(rs.getString("doctor_name"));
-        appointment.setAppointmentTime(rs.getTimestamp("appointment_time").toLocalDateTime());
-        appointment.setPurpose(rs.getString("purpose"));
-        appointment.setStatus(rs.getString("status"));
-        return appointment;
-    }
+public interface AppointmentDAO {
+    // createAppointment, createAppointments and updateAppointments write without the double-booking check; they are
+    // for loading calendars that are already consistent. Booking and moving go through bookAppointment and
+    // updateAppointment, which refuse overlaps.
+    void createAppointment(Appointment appointment);
+
+    BatchResult createAppointments(List<Appointment> appointments);
+
+    BookingResult bookAppointment(Appointment appointment);
+
+    boolean isSlotAvailable(int doctorId, LocalDateTime start, int durationMinutes);
+
+    Appointment getAppointmentById(int id);
+
+    List<Appointment> getAppointmentsByPatient(int patientId);
+
+    List<Appointment> getAppointmentsByPatient(int patientId, boolean includeHistory);
+
+    List<Appointment> getAppointmentsByDoctor(int doctorId);
+
+    List<Appointment> getAppointmentsByDate(LocalDate date);
+
+    List<Appointment> getAppointmentsByDoctorAndDate(int doctorId, LocalDate date);
+
+    List<Appointment> getAppointmentsBetween(LocalDateTime from, LocalDateTime to, AppointmentFilter filter);
+
+    // Every appointment in the live table, in id order; archived ones are not included. False if the cursor
+    // failed part way, after some appointments may already have been passed to action
+    boolean forEachAppointment(Consumer<Appointment> action);
+
+    List<LocalDateTime> findFreeSlots(int doctorId, LocalDateTime after, int count, int durationMinutes);
+
+    List<Integer> findDoctorsFreeAt(LocalDateTime start, int durationMinutes);
+
+    void rebuildAvailability();
+
+    UpdateResult updateAppointment(Appointment appointment);
+
+    boolean cancelAppointment(int appointmentId);
+
+    boolean updateStatus(int appointmentId, AppointmentStatus status);
+
+    BatchResult updateAppointments(List<Appointment> appointments);
+
+    BatchResult cancelAppointments(List<Integer> appointmentIds);
+
+    int archiveAppointments(LocalDateTime cutoff);
 }
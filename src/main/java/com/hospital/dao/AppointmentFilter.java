@@ -0,0 +1,42 @@
+package com.hospital.dao;
+
+import com.hospital.model.AppointmentStatus;
+
+// Optional criteria for AppointmentDAO.getAppointmentsBetween; unset fields do not filter
+public class AppointmentFilter {
+    private Integer doctorId;
+    private Integer patientId;
+    private AppointmentStatus status;
+
+    public AppointmentFilter() {}
+
+    public static AppointmentFilter scheduled() {
+        AppointmentFilter filter = new AppointmentFilter();
+        filter.setStatus(AppointmentStatus.SCHEDULED);
+        return filter;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Integer doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Integer patientId) {
+        this.patientId = patientId;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+}
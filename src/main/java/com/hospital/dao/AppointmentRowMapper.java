@@ -0,0 +1,47 @@
+package com.hospital.dao;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+// Maps rows selected with COLUMNS. Column positions are resolved once per ResultSet, not once per row.
+final class AppointmentRowMapper {
+    static final String COLUMNS = "id, version, patient_id, doctor_id, appointment_time, duration_minutes, purpose, status";
+
+    private final int id;
+    private final int version;
+    private final int patientId;
+    private final int doctorId;
+    private final int appointmentTime;
+    private final int durationMinutes;
+    private final int purpose;
+    private final int status;
+
+    AppointmentRowMapper(ResultSet rs) throws SQLException {
+        this.id = rs.findColumn("id");
+        this.version = rs.findColumn("version");
+        this.patientId = rs.findColumn("patient_id");
+        this.doctorId = rs.findColumn("doctor_id");
+        this.appointmentTime = rs.findColumn("appointment_time");
+        this.durationMinutes = rs.findColumn("duration_minutes");
+        this.purpose = rs.findColumn("purpose");
+        this.status = rs.findColumn("status");
+    }
+
+    Appointment map(ResultSet rs) throws SQLException {
+        Appointment appointment = new Appointment();
+        appointment.setId(rs.getInt(id));
+        appointment.setVersion(rs.getInt(version));
+        appointment.setPatientId(rs.getInt(patientId));
+        appointment.setDoctorId(rs.getInt(doctorId));
+        appointment.setAppointmentTime(rs.getObject(appointmentTime, LocalDateTime.class));
+        appointment.setDurationMinutes(rs.getInt(durationMinutes));
+        appointment.setPurpose(rs.getString(purpose));
+        appointment.setStatus(AppointmentStatus.fromCode(rs.getInt(status)));
+        appointment.markUnchanged();
+        return appointment;
+    }
+}
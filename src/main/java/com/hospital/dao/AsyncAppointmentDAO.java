@@ -0,0 +1,73 @@
+package com.hospital.dao;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncAppointmentDAO {
+    private final AppointmentDAO appointmentDAO;
+
+    public AsyncAppointmentDAO() {
+        this(DaoFactory.getAppointmentDAO());
+    }
+
+    public AsyncAppointmentDAO(AppointmentDAO appointmentDAO) {
+        this.appointmentDAO = appointmentDAO;
+    }
+
+    public CompletableFuture<Appointment> createAppointment(Appointment appointment) {
+        return AsyncSupport.supply(() -> {
+            appointmentDAO.createAppointment(appointment);
+            return appointment;
+        });
+    }
+
+    public CompletableFuture<BookingResult> bookAppointment(Appointment appointment) {
+        return AsyncSupport.supply(() -> appointmentDAO.bookAppointment(appointment));
+    }
+
+    public CompletableFuture<Appointment> getAppointmentById(int id) {
+        return AsyncSupport.supply(() -> appointmentDAO.getAppointmentById(id));
+    }
+
+    public CompletableFuture<List<Appointment>> getAppointmentsByPatient(int patientId) {
+        return AsyncSupport.supply(() -> appointmentDAO.getAppointmentsByPatient(patientId));
+    }
+
+    public CompletableFuture<List<Appointment>> getAppointmentsByPatient(int patientId, boolean includeHistory) {
+        return AsyncSupport.supply(() -> appointmentDAO.getAppointmentsByPatient(patientId, includeHistory));
+    }
+
+    public CompletableFuture<List<Appointment>> getAppointmentsByDoctor(int doctorId) {
+        return AsyncSupport.supply(() -> appointmentDAO.getAppointmentsByDoctor(doctorId));
+    }
+
+    public CompletableFuture<List<Appointment>> getAppointmentsByDate(LocalDate date) {
+        return AsyncSupport.supply(() -> appointmentDAO.getAppointmentsByDate(date));
+    }
+
+    public CompletableFuture<List<Appointment>> getAppointmentsByDoctorAndDate(int doctorId, LocalDate date) {
+        return AsyncSupport.supply(() -> appointmentDAO.getAppointmentsByDoctorAndDate(doctorId, date));
+    }
+
+    public CompletableFuture<List<Appointment>> getAppointmentsBetween(LocalDateTime from, LocalDateTime to,
+                                                                       AppointmentFilter filter) {
+        return AsyncSupport.supply(() -> appointmentDAO.getAppointmentsBetween(from, to, filter));
+    }
+
+    public CompletableFuture<UpdateResult> updateAppointment(Appointment appointment) {
+        return AsyncSupport.supply(() -> appointmentDAO.updateAppointment(appointment));
+    }
+
+    public CompletableFuture<Boolean> cancelAppointment(int appointmentId) {
+        return AsyncSupport.supply(() -> appointmentDAO.cancelAppointment(appointmentId));
+    }
+
+    public CompletableFuture<Boolean> updateStatus(int appointmentId, AppointmentStatus status) {
+        return AsyncSupport.supply(() -> appointmentDAO.updateStatus(appointmentId, status));
+    }
+}
@@ -0,0 +1,47 @@
+package com.hospital.dao;
+
+import com.hospital.model.Patient;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncPatientDAO {
+    private final PatientDAO patientDAO;
+
+    public AsyncPatientDAO() {
+        this(DaoFactory.getPatientDAO());
+    }
+
+    public AsyncPatientDAO(PatientDAO patientDAO) {
+        this.patientDAO = patientDAO;
+    }
+
+    public CompletableFuture<Patient> createPatient(Patient patient) {
+        return AsyncSupport.supply(() -> {
+            patientDAO.createPatient(patient);
+            return patient;
+        });
+    }
+
+    public CompletableFuture<Patient> getPatientById(int id) {
+        return AsyncSupport.supply(() -> patientDAO.getPatientById(id));
+    }
+
+    public CompletableFuture<Map<Integer, Patient>> getPatientsByIds(Collection<Integer> ids) {
+        return AsyncSupport.supply(() -> patientDAO.getPatientsByIds(ids));
+    }
+
+    public CompletableFuture<List<Patient>> getPatientsAfter(int afterId, int limit) {
+        return AsyncSupport.supply(() -> patientDAO.getPatientsAfter(afterId, limit));
+    }
+
+    public CompletableFuture<UpdateResult> updatePatient(Patient patient) {
+        return AsyncSupport.supply(() -> patientDAO.updatePatient(patient));
+    }
+
+    public CompletableFuture<Boolean> deletePatient(int id) {
+        return AsyncSupport.supply(() -> patientDAO.deletePatient(id));
+    }
+}
@@ -0,0 +1,29 @@
+package com.hospital.dao;
+
+import com.hospital.util.DatabaseConnection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Runs blocking DAO calls on virtual threads. At most as many calls as the pool has connections run at once;
+// the rest park cheaply on the semaphore instead of piling up as pool waiters and hitting the borrow timeout.
+final class AsyncSupport {
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Semaphore permits = new Semaphore(DatabaseConnection.getPool().getMaxSize(), true);
+
+    private AsyncSupport() {}
+
+    static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return call.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+}
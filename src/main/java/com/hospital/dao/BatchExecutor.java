@@ -0,0 +1,148 @@
+package com.hospital.dao;
+
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.TransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.List;
+
+// Runs a parameterised statement over a list of rows in chunks. Each chunk is sent as one JDBC batch in its own
+// transaction; if the chunk fails it is rolled back and replayed row by row so that only the bad rows are reported.
+// Inside a TransactionManager block the chunks join the block's transaction instead, and a failed chunk or row is
+// undone back to a savepoint, so the block still commits once.
+class BatchExecutor {
+    static final int CHUNK_SIZE = Integer.getInteger("hospital.batch.chunkSize", 500);
+
+    interface Binder<T> {
+        void bind(PreparedStatement stmt, T item) throws SQLException;
+    }
+
+    interface KeySetter<T> {
+        void setKey(T item, int key);
+    }
+
+    static <T> BatchResult execute(String sql, List<T> items, Binder<T> binder, KeySetter<T> keySetter) {
+        BatchResult result = new BatchResult();
+        int next = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            while (next < items.size()) {
+                int end = Math.min(next + CHUNK_SIZE, items.size());
+                List<T> chunk = items.subList(next, end);
+                Savepoint savepoint = mark(conn);
+                try {
+                    executeChunk(conn, sql, chunk, next, binder, keySetter, result);
+                } catch (SQLException | RuntimeException e) {
+                    undo(conn, savepoint);
+                    executeRowByRow(conn, sql, chunk, next, binder, keySetter, result);
+                }
+                next = end;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            // Rows are recorded in order, so everything past the recorded ones is still unattempted; a chunk
+            // that failed part way through row by row keeps the outcomes it already has
+            for (int i = result.recordedCount(); i < items.size(); i++) {
+                result.recordFailure(i, e.getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    private static <T> void executeChunk(Connection conn, String sql, List<T> chunk, int offset, Binder<T> binder,
+                                         KeySetter<T> keySetter, BatchResult result) throws SQLException {
+        int[] counts;
+        int[] keys = new int[chunk.size()];
+        int keyCount = 0;
+
+        try (PreparedStatement stmt = prepare(conn, sql, keySetter)) {
+            for (T item : chunk) {
+                binder.bind(stmt, item);
+                stmt.addBatch();
+            }
+            counts = stmt.executeBatch();
+
+            if (keySetter != null) {
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    while (rs.next() && keyCount < keys.length) {
+                        keys[keyCount++] = rs.getInt(1);
+                    }
+                }
+            }
+        }
+        conn.commit();
+
+        // Keys are only handed back once the chunk is durable
+        for (int i = 0; i < keyCount; i++) {
+            keySetter.setKey(chunk.get(i), keys[i]);
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i < counts.length && counts[i] == 0) {
+                result.recordFailure(offset + i, "No matching row");
+            } else {
+                result.recordSuccess();
+            }
+        }
+    }
+
+    private static <T> void executeRowByRow(Connection conn, String sql, List<T> chunk, int offset, Binder<T> binder,
+                                            KeySetter<T> keySetter, BatchResult result) throws SQLException {
+        try (PreparedStatement stmt = prepare(conn, sql, keySetter)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                T item = chunk.get(i);
+                Savepoint savepoint = mark(conn);
+                try {
+                    binder.bind(stmt, item);
+                    int affected = stmt.executeUpdate();
+                    int key = 0;
+                    if (keySetter != null && affected > 0) {
+                        try (ResultSet rs = stmt.getGeneratedKeys()) {
+                            if (rs.next()) {
+                                key = rs.getInt(1);
+                            }
+                        }
+                    }
+                    conn.commit();
+
+                    if (affected == 0) {
+                        result.recordFailure(offset + i, "No matching row");
+                        continue;
+                    }
+                    if (key != 0) {
+                        keySetter.setKey(item, key);
+                    }
+                    result.recordSuccess();
+                } catch (SQLException | RuntimeException e) {
+                    undo(conn, savepoint);
+                    result.recordFailure(offset + i, String.valueOf(e.getMessage()));
+                }
+            }
+        }
+    }
+
+    // Inside a caller's transaction commit and rollback belong to the caller, so failures are undone to a savepoint
+    private static Savepoint mark(Connection conn) throws SQLException {
+        return TransactionManager.isActive() ? conn.setSavepoint() : null;
+    }
+
+    private static void undo(Connection conn, Savepoint savepoint) throws SQLException {
+        if (savepoint != null) {
+            conn.rollback(savepoint);
+        } else {
+            conn.rollback();
+        }
+    }
+
+    private static PreparedStatement prepare(Connection conn, String sql, KeySetter<?> keySetter) throws SQLException {
+        return keySetter != null
+                ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conn.prepareStatement(sql);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hospital.dao;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchResult {
+    private int successCount;
+    private final List<Failure> failures = new ArrayList<>();
+
+    void recordSuccess() {
+        successCount++;
+    }
+
+    void recordFailure(int index, String reason) {
+        failures.add(new Failure(index, reason));
+    }
+
+    // Rows with an outcome so far, successes and failures
+    int recordedCount() {
+        return successCount + failures.size();
+    }
+
+    // The items of the batch that were written, i.e. not listed among its failures
+    <T> List<T> succeeded(List<T> items) {
+        BitSet failed = new BitSet(items.size());
+        for (Failure failure : failures) {
+            failed.set(failure.getIndex());
+        }
+        List<T> written = new ArrayList<>(items.size() - failed.cardinality());
+        for (int i = 0; i < items.size(); i++) {
+            if (!failed.get(i)) {
+                written.add(items.get(i));
+            }
+        }
+        return written;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{succeeded=" + successCount + ", failed=" + failures.size() + '}';
+    }
+
+    public static class Failure {
+        private final int index;
+        private final String reason;
+
+        Failure(int index, String reason) {
+            this.index = index;
+            this.reason = reason;
+        }
+
+        // Position of the failed row in the list passed to the batch method
+        public int getIndex() {
+            return index;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "row " + index + ": " + reason;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.hospital.dao;
+
+public enum BookingResult {
+    BOOKED,
+    // The doctor already has a scheduled appointment overlapping the requested time
+    CONFLICT,
+    // The appointment duration is outside the allowed range
+    INVALID,
+    FAILED
+}
@@ -0,0 +1,24 @@
+package com.hospital.dao;
+
+// Shared DAO instances. Every storage backend (see StorageBackend) is reached over JDBC, so one implementation
+// per DAO serves them all; backends differ only in driver, connection settings and DDL dialect.
+// Each is wrapped for metrics (see InstrumentedDao) unless metrics are disabled.
+public final class DaoFactory {
+    private static final PatientDAO patientDAO = InstrumentedDao.wrap(PatientDAO.class, new JdbcPatientDAO());
+    private static final AppointmentDAO appointmentDAO = InstrumentedDao.wrap(AppointmentDAO.class, new JdbcAppointmentDAO());
+    private static final DoctorDAO doctorDAO = InstrumentedDao.wrap(DoctorDAO.class, new JdbcDoctorDAO());
+
+    private DaoFactory() {}
+
+    public static PatientDAO getPatientDAO() {
+        return patientDAO;
+    }
+
+    public static AppointmentDAO getAppointmentDAO() {
+        return appointmentDAO;
+    }
+
+    public static DoctorDAO getDoctorDAO() {
+        return doctorDAO;
+    }
+}
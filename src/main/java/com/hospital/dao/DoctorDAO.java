@@ -0,0 +1,17 @@
+package com.hospital.dao;
+
+import com.hospital.model.Doctor;
+
+import java.util.List;
+
+public interface DoctorDAO {
+    void createDoctor(Doctor doctor);
+
+    Doctor getDoctorById(int id);
+
+    Doctor getDoctorByName(String name);
+
+    List<Doctor> getAllDoctors();
+
+    boolean updateDoctor(Doctor doctor);
+}
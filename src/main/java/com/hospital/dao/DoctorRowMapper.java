@@ -0,0 +1,36 @@
+package com.hospital.dao;
+
+import com.hospital.model.Doctor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalTime;
+
+// Maps rows selected with COLUMNS. Column positions are resolved once per ResultSet, not once per row.
+final class DoctorRowMapper {
+    static final String COLUMNS = "id, name, specialization, work_start, work_end";
+
+    private final int id;
+    private final int name;
+    private final int specialization;
+    private final int workStart;
+    private final int workEnd;
+
+    DoctorRowMapper(ResultSet rs) throws SQLException {
+        this.id = rs.findColumn("id");
+        this.name = rs.findColumn("name");
+        this.specialization = rs.findColumn("specialization");
+        this.workStart = rs.findColumn("work_start");
+        this.workEnd = rs.findColumn("work_end");
+    }
+
+    Doctor map(ResultSet rs) throws SQLException {
+        Doctor doctor = new Doctor();
+        doctor.setId(rs.getInt(id));
+        doctor.setName(rs.getString(name));
+        doctor.setSpecialization(rs.getString(specialization));
+        doctor.setWorkStart(rs.getObject(workStart, LocalTime.class));
+        doctor.setWorkEnd(rs.getObject(workEnd, LocalTime.class));
+        return doctor;
+    }
+}
@@ -0,0 +1,68 @@
+package com.hospital.dao;
+
+import com.hospital.metrics.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Times every call made through a DAO interface and counts the rows it returned (list and map sizes) or wrote
+// (BatchResult successes), recorded under "PatientDAO.getPatientById" and so on. With metrics disabled the DAO
+// is handed out unwrapped.
+final class InstrumentedDao implements InvocationHandler {
+    private final Object target;
+    private final String prefix;
+    // "PatientDAO.getPatientById" per method, built once rather than on every call
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    private InstrumentedDao(Object target, String prefix) {
+        this.target = target;
+        this.prefix = prefix;
+    }
+
+    static <T> T wrap(Class<T> type, T target) {
+        if (!Metrics.ENABLED) {
+            return target;
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new InstrumentedDao(target, type.getSimpleName() + ".")));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "Instrumented" + target;
+            };
+        }
+        String name = names.computeIfAbsent(method, m -> prefix + m.getName());
+        long start = System.nanoTime();
+        try {
+            Object result = method.invoke(target, args);
+            Metrics.recordDaoCall(name, System.nanoTime() - start, rowsOf(result), false);
+            return result;
+        } catch (InvocationTargetException e) {
+            Metrics.recordDaoCall(name, System.nanoTime() - start, 0, true);
+            throw e.getCause();
+        }
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection<?> rows) {
+            return rows.size();
+        }
+        if (result instanceof Map<?, ?> rows) {
+            return rows.size();
+        }
+        if (result instanceof BatchResult batch) {
+            return batch.getSuccessCount();
+        }
+        return 0;
+    }
+}
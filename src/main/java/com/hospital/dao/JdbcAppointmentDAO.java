@@ -0,0 +1,715 @@
+package com.hospital.dao;
+
+import com.hospital.cache.CacheStats;
+import com.hospital.cache.ScheduleCache;
+import com.hospital.index.AvailabilityIndex;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.model.Doctor;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.TransactionManager;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public class JdbcAppointmentDAO implements AppointmentDAO {
+    // Status codes are inlined into the listing queries so each keeps one plan and compares a single TINYINT
+    private static final int SCHEDULED = AppointmentStatus.SCHEDULED.getCode();
+    // True when the row's current status may move to the bound target status. Used as a compare-and-set guard, so
+    // a transition racing another one (cancel vs. complete) succeeds for exactly one of them
+    private static final String TRANSITION_ALLOWED = "(status, ?) IN (" + transitionPairs() + ")";
+    private static final String INSERT_SQL = "INSERT INTO appointments (patient_id, doctor_id, appointment_time, duration_minutes, purpose, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_BY_ID_SQL = "SELECT " + AppointmentRowMapper.COLUMNS + " FROM appointments WHERE id = ?";
+    private static final String SELECT_BY_PATIENT_SQL = "SELECT " + AppointmentRowMapper.COLUMNS + " FROM appointments WHERE patient_id = ? ORDER BY appointment_time";
+    // Both halves are served by a (patient_id, appointment_time) index
+    private static final String SELECT_HISTORY_BY_PATIENT_SQL = "SELECT " + AppointmentRowMapper.COLUMNS + " FROM appointments WHERE patient_id = ? " +
+            "UNION ALL SELECT " + AppointmentRowMapper.COLUMNS + " FROM appointments_archive WHERE patient_id = ? ORDER BY appointment_time";
+    private static final String SELECT_BY_DOCTOR_SQL = "SELECT " + AppointmentRowMapper.COLUMNS + " FROM appointments WHERE doctor_id = ? AND status = " + SCHEDULED + " ORDER BY appointment_time";
+    private static final String SELECT_ALL_SQL = "SELECT " + AppointmentRowMapper.COLUMNS + " FROM appointments ORDER BY id";
+    private static final String SELECT_BETWEEN_SQL = "SELECT " + AppointmentRowMapper.COLUMNS + " FROM appointments WHERE appointment_time >= ? AND appointment_time < ?";
+    // Full-row form used by batch updates, which need one statement shape; single updates write changed fields only
+    private static final String UPDATE_SQL = "UPDATE appointments SET patient_id = ?, doctor_id = ?, " +
+            "appointment_time = ?, duration_minutes = ?, purpose = ?, status = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ? AND (status = ? OR " + TRANSITION_ALLOWED + ")";
+    private static final String UPDATE_STATUS_SQL = "UPDATE appointments SET status = ?, version = version + 1 " +
+            "WHERE id = ? AND " + TRANSITION_ALLOWED;
+    private static final String SELECT_VERSION_SQL = "SELECT version FROM appointments WHERE id = ?";
+    // Candidates that could overlap [start, end): anything starting after start - MAX_DURATION_MINUTES and before end,
+    // other than the appointment being moved (0 when booking), served by idx_appointments_doctor_time. FOR UPDATE
+    // makes it a locking read of the latest committed rows
+    private static final String SELECT_OVERLAP_SQL = "SELECT appointment_time, duration_minutes FROM appointments " +
+            "WHERE doctor_id = ? AND appointment_time > ? AND appointment_time < ? AND status = " + SCHEDULED +
+            " AND id <> ?";
+    private static final String SELECT_OVERLAP_FOR_UPDATE_SQL = SELECT_OVERLAP_SQL + " FOR UPDATE";
+    // Row lock on the doctor that every booker of that doctor takes first, so bookings of one doctor are serialised
+    // in the database whatever the engine's gap locking: H2 takes no gap locks, so locking the overlapping rows alone
+    // let two bookers insert into the same empty slot
+    private static final String LOCK_DOCTOR_SQL = "SELECT id FROM doctors WHERE id = ? FOR UPDATE";
+    private static final int MAX_BOOKING_ATTEMPTS = 5;
+    private static final int REBUILD_FETCH_SIZE = 500;
+    private static final int STREAM_FETCH_SIZE = 500;
+    
+    private static final Map<Integer, ReentrantLock> doctorLocks = new ConcurrentHashMap<>();
+    // Shared by every DAO instance; all writes below go through it so readers never see stale slots
+    private static final ScheduleCache scheduleCache = new ScheduleCache();
+    // Free/busy slots per doctor and day, kept in step with every write below and rebuilt by rebuildAvailability
+    private static volatile AvailabilityIndex availabilityIndex = new AvailabilityIndex();
+
+    // Unchecked: inserts even over another appointment of the doctor. For loading calendars that are already
+    // consistent; bookings go through bookAppointment. The duration is still checked, since the overlap checks only
+    // look back MAX_DURATION_MINUTES for appointments that could reach into a slot.
+    @Override
+    public void createAppointment(Appointment appointment) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            
+            bindAppointment(stmt, appointment);
+            
+            int affectedRows = stmt.executeUpdate();
+            
+            if (affectedRows > 0) {
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        appointment.setId(rs.getInt(1));
+                    }
+                }
+                appointment.setVersion(0);
+                appointment.markUnchanged();
+                TransactionManager.afterCommit(() -> {
+                    scheduleCache.onWrite(appointment);
+                    availabilityIndex.add(appointment);
+                });
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    // Unchecked bulk insert, like createAppointment; a row with a duration out of range is recorded as failed
+    @Override
+    public BatchResult createAppointments(List<Appointment> appointments) {
+        try {
+            BatchResult result = BatchExecutor.execute(INSERT_SQL, appointments, this::bindAppointment, Appointment::setId);
+            List<Appointment> created = result.succeeded(appointments);
+            for (Appointment appointment : created) {
+                appointment.markUnchanged();
+            }
+            TransactionManager.afterCommit(() -> created.forEach(appointment -> availabilityIndex.add(appointment)));
+            return result;
+        } finally {
+            TransactionManager.afterCommit(scheduleCache::invalidateAll);
+        }
+    }
+    
+    // Atomically checks the doctor's calendar and inserts the appointment. Concurrent bookers of the same doctor
+    // queue on a per-doctor lock in this process; across processes the doctor row lock taken in tryBook serialises
+    // them and a deadlock victim simply retries and then sees the winner's row.
+    // Inside a unit of work the booking joins the caller's transaction, which keeps the doctor row lock until it
+    // commits; a deadlock then fails the whole unit, which TransactionManager retries. The unit must run at
+    // READ_COMMITTED: under REPEATABLE_READ the overlap check reads the snapshot the unit's first statement took, and
+    // on H2 misses a booking committed while this one waited for the lock.
+    @Override
+    public BookingResult bookAppointment(Appointment appointment) {
+        if (!validDuration(appointment)) {
+            return BookingResult.INVALID;
+        }
+        if (TransactionManager.isActive()) {
+            // Not queued on the in-process lock, only on the doctor row lock: the transaction may already hold row
+            // locks another booker is waiting for, and the database cannot see a wait on an in-process lock to break it
+            try {
+                return tryBook(appointment);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return BookingResult.FAILED;
+            }
+        }
+        
+        ReentrantLock lock = doctorLocks.computeIfAbsent(appointment.getDoctorId(), id -> new ReentrantLock());
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return tryBook(appointment);
+                } catch (SQLException e) {
+                    if (!TransactionManager.isRetryable(e) || attempt == MAX_BOOKING_ATTEMPTS) {
+                        e.printStackTrace();
+                        return BookingResult.FAILED;
+                    }
+                    TransactionManager.backoff(attempt);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public boolean isSlotAvailable(int doctorId, LocalDateTime start, int durationMinutes) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return !hasOverlap(conn, SELECT_OVERLAP_SQL, doctorId, start, start.plusMinutes(durationMinutes), 0);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    // The doctor row lock, not gap locks, is what keeps two bookings out of one slot, so READ_COMMITTED is enough and
+    // lets the overlap check see every booking committed before the lock was granted. Inside a unit of work the
+    // commit, rollback and isolation below are the caller's.
+    private BookingResult tryBook(Appointment appointment) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            try {
+                lockDoctor(conn, appointment.getDoctorId());
+                if (hasOverlap(conn, SELECT_OVERLAP_FOR_UPDATE_SQL, appointment.getDoctorId(),
+                        appointment.getAppointmentTime(), appointment.getEndTime(), 0)) {
+                    conn.rollback();
+                    return BookingResult.CONFLICT;
+                }
+                
+                int id = 0;
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    bindAppointment(stmt, appointment);
+                    stmt.executeUpdate();
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            id = rs.getInt(1);
+                        }
+                    }
+                }
+                conn.commit();
+                appointment.setId(id);
+                appointment.setVersion(0);
+                appointment.markUnchanged();
+                TransactionManager.afterCommit(() -> {
+                    scheduleCache.onWrite(appointment);
+                    availabilityIndex.add(appointment);
+                });
+                return BookingResult.BOOKED;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+    
+    private static void lockDoctor(Connection conn, int doctorId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_DOCTOR_SQL)) {
+            stmt.setInt(1, doctorId);
+            stmt.executeQuery().close();
+        }
+    }
+    
+    private boolean hasOverlap(Connection conn, String sql, int doctorId, LocalDateTime start, LocalDateTime end,
+                               int excludeId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, doctorId);
+            stmt.setObject(2, start.minusMinutes(Appointment.MAX_DURATION_MINUTES));
+            stmt.setObject(3, end);
+            stmt.setInt(4, excludeId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime existingStart = rs.getObject(1, LocalDateTime.class);
+                    if (existingStart.plusMinutes(rs.getInt(2)).isAfter(start)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public Appointment getAppointmentById(int id) {
+        Appointment appointment = null;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+            
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                appointment = new AppointmentRowMapper(rs).map(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return appointment;
+    }
+    
+    // Appointments still in the live table, i.e. upcoming ones and those not yet archived
+    @Override
+    public List<Appointment> getAppointmentsByPatient(int patientId) {
+        return getAppointmentsByPatient(patientId, false);
+    }
+    
+    // With includeHistory, archived appointments are merged in as well
+    @Override
+    public List<Appointment> getAppointmentsByPatient(int patientId, boolean includeHistory) {
+        List<Appointment> appointments = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(includeHistory ? SELECT_HISTORY_BY_PATIENT_SQL : SELECT_BY_PATIENT_SQL)) {
+            
+            stmt.setInt(1, patientId);
+            if (includeHistory) {
+                stmt.setInt(2, patientId);
+            }
+            ResultSet rs = stmt.executeQuery();
+            AppointmentRowMapper mapper = new AppointmentRowMapper(rs);
+            
+            while (rs.next()) {
+                appointments.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return appointments;
+    }
+    
+    @Override
+    public List<Appointment> getAppointmentsByDoctor(int doctorId) {
+        try {
+            return cachedListing(doctorId, null, () -> queryByDoctor(doctorId));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    @Override
+    public List<Appointment> getAppointmentsByDate(LocalDate date) {
+        try {
+            return cachedListing(null, date, () -> queryBetween(date.atStartOfDay(),
+                    date.plusDays(1).atStartOfDay(), AppointmentFilter.scheduled()));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    @Override
+    public List<Appointment> getAppointmentsByDoctorAndDate(int doctorId, LocalDate date) {
+        AppointmentFilter filter = AppointmentFilter.scheduled();
+        filter.setDoctorId(doctorId);
+        try {
+            return cachedListing(doctorId, date, () -> queryBetween(date.atStartOfDay(),
+                    date.plusDays(1).atStartOfDay(), filter));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    // Appointments starting in [from, to). The time column is compared as a plain range so the
+    // (status, appointment_time), (doctor_id, status, appointment_time) and (patient_id, appointment_time)
+    // indexes can be used for day, week and month views alike
+    @Override
+    public List<Appointment> getAppointmentsBetween(LocalDateTime from, LocalDateTime to, AppointmentFilter filter) {
+        try {
+            return queryBetween(from, to, filter);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    // Streams the live table in id order from a server-side cursor, STREAM_FETCH_SIZE rows at a time
+    @Override
+    public boolean forEachAppointment(Consumer<Appointment> action) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL)) {
+            
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                AppointmentRowMapper mapper = new AppointmentRowMapper(rs);
+                while (rs.next()) {
+                    action.accept(mapper.map(rs));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    // Inside a unit of work listings are read through its transaction, so they see its own writes and are never cached
+    private static List<Appointment> cachedListing(Integer doctorId, LocalDate date, ScheduleCache.Loader loader)
+            throws SQLException {
+        return TransactionManager.isActive() ? loader.load() : scheduleCache.get(doctorId, date, loader);
+    }
+    
+    public static CacheStats getScheduleCacheStats() {
+        return scheduleCache.getStats();
+    }
+    
+    // Start times from the availability index at which the doctor is free for durationMinutes, earliest first
+    @Override
+    public List<LocalDateTime> findFreeSlots(int doctorId, LocalDateTime after, int count, int durationMinutes) {
+        return availabilityIndex.nextFreeSlots(doctorId, after, count, durationMinutes);
+    }
+    
+    @Override
+    public List<Integer> findDoctorsFreeAt(LocalDateTime start, int durationMinutes) {
+        return availabilityIndex.doctorsFreeAt(start, durationMinutes);
+    }
+    
+    // Loads every doctor and every scheduled appointment from today to the index horizon into a fresh
+    // availability index and swaps it in. Meant for startup: writes made while it runs may be missed.
+    @Override
+    public void rebuildAvailability() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        for (Doctor doctor : new JdbcDoctorDAO().getAllDoctors()) {
+            index.putDoctor(doctor);
+        }
+        
+        LocalDate today = LocalDate.now();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BETWEEN_SQL + " AND status = " + SCHEDULED)) {
+            
+            stmt.setObject(1, today.atStartOfDay());
+            stmt.setObject(2, today.plusDays(AvailabilityIndex.HORIZON_DAYS + 1).atStartOfDay());
+            stmt.setFetchSize(REBUILD_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                AppointmentRowMapper mapper = new AppointmentRowMapper(rs);
+                while (rs.next()) {
+                    index.add(mapper.map(rs));
+                }
+            }
+            availabilityIndex = index;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    static void onPatientDeleted(int patientId) {
+        scheduleCache.invalidatePatient(patientId);
+        availabilityIndex.removePatient(patientId);
+    }
+    
+    static void onDoctorChanged(Doctor doctor) {
+        availabilityIndex.putDoctor(doctor);
+    }
+    
+    private List<Appointment> queryByDoctor(int doctorId) throws SQLException {
+        List<Appointment> appointments = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_DOCTOR_SQL)) {
+            
+            stmt.setInt(1, doctorId);
+            ResultSet rs = stmt.executeQuery();
+            AppointmentRowMapper mapper = new AppointmentRowMapper(rs);
+            
+            while (rs.next()) {
+                appointments.add(mapper.map(rs));
+            }
+        }
+        
+        return appointments;
+    }
+    
+    private List<Appointment> queryBetween(LocalDateTime from, LocalDateTime to, AppointmentFilter filter)
+            throws SQLException {
+        List<Appointment> appointments = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_BETWEEN_SQL);
+        if (filter.getDoctorId() != null) {
+            sql.append(" AND doctor_id = ?");
+        }
+        if (filter.getPatientId() != null) {
+            sql.append(" AND patient_id = ?");
+        }
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = ?");
+        }
+        sql.append(" ORDER BY appointment_time");
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            stmt.setObject(index++, from);
+            stmt.setObject(index++, to);
+            if (filter.getDoctorId() != null) {
+                stmt.setInt(index++, filter.getDoctorId());
+            }
+            if (filter.getPatientId() != null) {
+                stmt.setInt(index++, filter.getPatientId());
+            }
+            if (filter.getStatus() != null) {
+                stmt.setInt(index, filter.getStatus().getCode());
+            }
+            ResultSet rs = stmt.executeQuery();
+            AppointmentRowMapper mapper = new AppointmentRowMapper(rs);
+            
+            while (rs.next()) {
+                appointments.add(mapper.map(rs));
+            }
+        }
+        
+        return appointments;
+    }
+    
+    // Writes only the fields changed since the appointment was read, and only if the row is still at the version
+    // read. A changed status must also be a transition the current status allows, and a scheduled appointment moved
+    // onto time the doctor already has booked is refused with OVERLAP.
+    @Override
+    public UpdateResult updateAppointment(Appointment appointment) {
+        Set<Appointment.Field> changed = appointment.getChangedFields();
+        if (changed.isEmpty()) {
+            return UpdateResult.UPDATED;
+        }
+        boolean moved = appointment.getStatus() == AppointmentStatus.SCHEDULED
+                && (changed.contains(Appointment.Field.DOCTOR_ID) || changed.contains(Appointment.Field.APPOINTMENT_TIME)
+                || changed.contains(Appointment.Field.DURATION_MINUTES));
+        if (changed.contains(Appointment.Field.DURATION_MINUTES) && !validDuration(appointment)) {
+            return UpdateResult.INVALID;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE appointments SET ");
+        for (Appointment.Field field : changed) {
+            sql.append(column(field)).append(" = ?, ");
+        }
+        sql.append("version = version + 1 WHERE id = ? AND version = ?");
+        boolean statusChanged = changed.contains(Appointment.Field.STATUS);
+        if (statusChanged) {
+            sql.append(" AND (status = ? OR ").append(TRANSITION_ALLOWED).append(")");
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            UpdateResult result = moved ? moveChecked(conn, appointment, sql.toString(), changed, statusChanged)
+                    : writeUpdate(conn, appointment, sql.toString(), changed, statusChanged);
+            if (result != UpdateResult.UPDATED) {
+                return result;
+            }
+            appointment.setVersion(appointment.getVersion() + 1);
+            appointment.markUnchanged();
+            TransactionManager.afterCommit(() -> {
+                scheduleCache.onWrite(appointment);
+                availabilityIndex.update(appointment);
+            });
+            return UpdateResult.UPDATED;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return UpdateResult.FAILED;
+        }
+    }
+    
+    // A scheduled appointment given a new doctor, time or duration goes through the same guard as a booking: the
+    // doctor's row lock, then the overlap check (leaving out the appointment itself), then the write, in one
+    // transaction. Inside a unit of work that is the caller's, at the caller's isolation (see bookAppointment).
+    private UpdateResult moveChecked(Connection conn, Appointment appointment, String sql, Set<Appointment.Field> changed,
+                                     boolean statusChanged) throws SQLException {
+        boolean own = !TransactionManager.isActive();
+        if (own) {
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        }
+        try {
+            lockDoctor(conn, appointment.getDoctorId());
+            UpdateResult result;
+            if (hasOverlap(conn, SELECT_OVERLAP_FOR_UPDATE_SQL, appointment.getDoctorId(),
+                    appointment.getAppointmentTime(), appointment.getEndTime(), appointment.getId())) {
+                result = UpdateResult.OVERLAP;
+            } else {
+                result = writeUpdate(conn, appointment, sql, changed, statusChanged);
+            }
+            if (own) {
+                if (result == UpdateResult.UPDATED) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            if (own) {
+                conn.rollback();
+            }
+            throw e;
+        }
+    }
+    
+    private UpdateResult writeUpdate(Connection conn, Appointment appointment, String sql, Set<Appointment.Field> changed,
+                                     boolean statusChanged) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Appointment.Field field : changed) {
+                bindField(stmt, index++, appointment, field);
+            }
+            stmt.setInt(index++, appointment.getId());
+            stmt.setInt(index++, appointment.getVersion());
+            if (statusChanged) {
+                stmt.setInt(index++, appointment.getStatus().getCode());
+                stmt.setInt(index, appointment.getStatus().getCode());
+            }
+            
+            if (stmt.executeUpdate() == 0) {
+                Integer current = versionOf(conn, appointment.getId());
+                if (current == null) {
+                    return UpdateResult.NOT_FOUND;
+                }
+                return current == appointment.getVersion() ? UpdateResult.INVALID : UpdateResult.CONFLICT;
+            }
+            return UpdateResult.UPDATED;
+        }
+    }
+    
+    @Override
+    public boolean cancelAppointment(int appointmentId) {
+        return updateStatus(appointmentId, AppointmentStatus.CANCELLED);
+    }
+    
+    // Moves the appointment to status if its current status allows it (see AppointmentStatus.canTransitionTo).
+    // The check and the write are one statement, so concurrent transitions cannot both win.
+    @Override
+    public boolean updateStatus(int appointmentId, AppointmentStatus status) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
+            
+            bindStatus(stmt, appointmentId, status);
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) {
+                TransactionManager.afterCommit(() -> {
+                    scheduleCache.invalidateAppointment(appointmentId);
+                    availabilityIndex.remove(appointmentId);
+                });
+            }
+            return updated;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    // Unchecked bulk update: versions and status transitions are enforced, overlaps are not. Move single
+    // appointments with updateAppointment.
+    @Override
+    public BatchResult updateAppointments(List<Appointment> appointments) {
+        try {
+            BatchResult result = BatchExecutor.execute(UPDATE_SQL, appointments, this::bindAppointmentUpdate, null);
+            List<Appointment> updated = result.succeeded(appointments);
+            for (Appointment appointment : updated) {
+                appointment.setVersion(appointment.getVersion() + 1);
+                appointment.markUnchanged();
+            }
+            TransactionManager.afterCommit(() -> updated.forEach(appointment -> availabilityIndex.update(appointment)));
+            return result;
+        } finally {
+            TransactionManager.afterCommit(scheduleCache::invalidateAll);
+        }
+    }
+    
+    @Override
+    public BatchResult cancelAppointments(List<Integer> appointmentIds) {
+        try {
+            BatchResult result = BatchExecutor.execute(UPDATE_STATUS_SQL, appointmentIds,
+                    (stmt, id) -> bindStatus(stmt, id, AppointmentStatus.CANCELLED), null);
+            List<Integer> cancelled = result.succeeded(appointmentIds);
+            TransactionManager.afterCommit(() -> cancelled.forEach(id -> availabilityIndex.remove(id)));
+            return result;
+        } finally {
+            TransactionManager.afterCommit(scheduleCache::invalidateAll);
+        }
+    }
+    
+    // Moves Completed and Cancelled appointments that started before cutoff to appointments_archive. Only
+    // scheduled appointments are cached or indexed, so neither needs to hear about the move.
+    @Override
+    public int archiveAppointments(LocalDateTime cutoff) {
+        return AppointmentArchiver.archiveBefore(cutoff);
+    }
+    
+    // Refuses a duration out of range here rather than at the callers, so neither the inserts nor the bulk update
+    // can skip it
+    private void bindAppointment(PreparedStatement stmt, Appointment appointment) throws SQLException {
+        if (!validDuration(appointment)) {
+            throw new SQLException("Duration out of range: " + appointment.getDurationMinutes() + " minutes");
+        }
+        stmt.setInt(1, appointment.getPatientId());
+        stmt.setInt(2, appointment.getDoctorId());
+        stmt.setObject(3, appointment.getAppointmentTime());
+        stmt.setInt(4, appointment.getDurationMinutes());
+        stmt.setString(5, appointment.getPurpose());
+        stmt.setInt(6, appointment.getStatus().getCode());
+    }
+    
+    private void bindAppointmentUpdate(PreparedStatement stmt, Appointment appointment) throws SQLException {
+        bindAppointment(stmt, appointment);
+        stmt.setInt(7, appointment.getId());
+        stmt.setInt(8, appointment.getVersion());
+        stmt.setInt(9, appointment.getStatus().getCode());
+        stmt.setInt(10, appointment.getStatus().getCode());
+    }
+    
+    private static Integer versionOf(Connection conn, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_VERSION_SQL)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+    
+    private static String column(Appointment.Field field) {
+        return switch (field) {
+            case PATIENT_ID -> "patient_id";
+            case DOCTOR_ID -> "doctor_id";
+            case APPOINTMENT_TIME -> "appointment_time";
+            case DURATION_MINUTES -> "duration_minutes";
+            case PURPOSE -> "purpose";
+            case STATUS -> "status";
+        };
+    }
+    
+    private static boolean validDuration(Appointment appointment) {
+        int duration = appointment.getDurationMinutes();
+        return duration > 0 && duration <= Appointment.MAX_DURATION_MINUTES;
+    }
+
+    private static void bindField(PreparedStatement stmt, int index, Appointment appointment, Appointment.Field field)
+            throws SQLException {
+        switch (field) {
+            case PATIENT_ID -> stmt.setInt(index, appointment.getPatientId());
+            case DOCTOR_ID -> stmt.setInt(index, appointment.getDoctorId());
+            case APPOINTMENT_TIME -> stmt.setObject(index, appointment.getAppointmentTime());
+            case DURATION_MINUTES -> stmt.setInt(index, appointment.getDurationMinutes());
+            case PURPOSE -> stmt.setString(index, appointment.getPurpose());
+            case STATUS -> stmt.setInt(index, appointment.getStatus().getCode());
+        }
+    }
+    
+    private static void bindStatus(PreparedStatement stmt, int appointmentId, AppointmentStatus status) throws SQLException {
+        stmt.setInt(1, status.getCode());
+        stmt.setInt(2, appointmentId);
+        stmt.setInt(3, status.getCode());
+    }
+    
+    // Every allowed (from, to) pair of status codes, e.g. "(1, 2), (1, 3)"
+    private static String transitionPairs() {
+        StringJoiner pairs = new StringJoiner(", ");
+        for (AppointmentStatus from : AppointmentStatus.values()) {
+            for (AppointmentStatus to : AppointmentStatus.values()) {
+                if (from.canTransitionTo(to)) {
+                    pairs.add("(" + from.getCode() + ", " + to.getCode() + ")");
+                }
+            }
+        }
+        return pairs.toString();
+    }
+}
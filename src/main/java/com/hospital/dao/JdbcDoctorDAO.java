@@ -0,0 +1,123 @@
+package com.hospital.dao;
+
+import com.hospital.model.Doctor;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.TransactionManager;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JdbcDoctorDAO implements DoctorDAO {
+    private static final String INSERT_SQL = "INSERT INTO doctors (name, specialization, work_start, work_end) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_BY_ID_SQL = "SELECT " + DoctorRowMapper.COLUMNS + " FROM doctors WHERE id = ?";
+    private static final String SELECT_BY_NAME_SQL = "SELECT " + DoctorRowMapper.COLUMNS + " FROM doctors WHERE name = ?";
+    private static final String SELECT_ALL_SQL = "SELECT " + DoctorRowMapper.COLUMNS + " FROM doctors ORDER BY id";
+    private static final String UPDATE_SQL = "UPDATE doctors SET name = ?, specialization = ?, work_start = ?, work_end = ? WHERE id = ?";
+
+    @Override
+    public void createDoctor(Doctor doctor) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            
+            bindDoctor(stmt, doctor);
+            
+            if (stmt.executeUpdate() > 0) {
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        doctor.setId(rs.getInt(1));
+                    }
+                }
+                TransactionManager.afterCommit(() -> JdbcAppointmentDAO.onDoctorChanged(doctor));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    @Override
+    public Doctor getDoctorById(int id) {
+        Doctor doctor = null;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+            
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                doctor = new DoctorRowMapper(rs).map(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return doctor;
+    }
+    
+    @Override
+    public Doctor getDoctorByName(String name) {
+        Doctor doctor = null;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_NAME_SQL)) {
+            
+            stmt.setString(1, name);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                doctor = new DoctorRowMapper(rs).map(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return doctor;
+    }
+    
+    @Override
+    public List<Doctor> getAllDoctors() {
+        List<Doctor> doctors = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL)) {
+            
+            ResultSet rs = stmt.executeQuery();
+            DoctorRowMapper mapper = new DoctorRowMapper(rs);
+            
+            while (rs.next()) {
+                doctors.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return doctors;
+    }
+    
+    @Override
+    public boolean updateDoctor(Doctor doctor) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+            
+            bindDoctor(stmt, doctor);
+            stmt.setInt(5, doctor.getId());
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) {
+                // Working hours may have changed
+                TransactionManager.afterCommit(() -> JdbcAppointmentDAO.onDoctorChanged(doctor));
+            }
+            return updated;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    private void bindDoctor(PreparedStatement stmt, Doctor doctor) throws SQLException {
+        stmt.setString(1, doctor.getName());
+        stmt.setString(2, doctor.getSpecialization());
+        stmt.setObject(3, doctor.getWorkStart());
+        stmt.setObject(4, doctor.getWorkEnd());
+    }
+}
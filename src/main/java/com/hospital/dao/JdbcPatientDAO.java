@@ -0,0 +1,358 @@
+package com.hospital.dao;
+
+import com.hospital.cache.CacheStats;
+import com.hospital.cache.PatientCache;
+import com.hospital.index.PatientSearchIndex;
+import com.hospital.model.Patient;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.TransactionManager;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class JdbcPatientDAO implements PatientDAO {
+    private static final String INSERT_SQL = "INSERT INTO patients (name, phone, email, date_of_birth, address) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_BY_ID_SQL = "SELECT " + PatientRowMapper.COLUMNS + " FROM patients WHERE id = ?";
+    private static final String SELECT_ALL_SQL = "SELECT " + PatientRowMapper.COLUMNS + " FROM patients ORDER BY id";
+    private static final String SELECT_PAGE_SQL = "SELECT " + PatientRowMapper.COLUMNS + " FROM patients WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_VERSION_SQL = "SELECT version FROM patients WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM patients WHERE id = ?";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int MAX_IN_LIST = 512;
+    
+    private static final PatientCache patientCache = new PatientCache();
+    // Name/phone/email search, loaded by rebuildSearchIndex (or the first search) and from then on kept in step
+    // with every write below. Until it is loaded writes leave it alone, so a process that never searches, such as a
+    // bulk import, does not build up an index of just the rows it wrote.
+    private static volatile PatientSearchIndex searchIndex;
+
+    @Override
+    public void createPatient(Patient patient) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            
+            bindPatient(stmt, patient);
+            
+            int affectedRows = stmt.executeUpdate();
+            
+            if (affectedRows > 0) {
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        patient.setId(rs.getInt(1));
+                    }
+                }
+                patient.setVersion(0);
+                patient.markUnchanged();
+                // The new id may have been negatively cached by an earlier lookup
+                TransactionManager.afterCommit(() -> {
+                    patientCache.invalidate(patient.getId());
+                    updateSearchIndex(index -> index.add(patient));
+                });
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    @Override
+    public BatchResult createPatients(List<Patient> patients) {
+        try {
+            BatchResult result = BatchExecutor.execute(INSERT_SQL, patients, this::bindPatient, Patient::setId);
+            List<Patient> created = result.succeeded(patients);
+            for (Patient patient : created) {
+                patient.markUnchanged();
+            }
+            TransactionManager.afterCommit(() -> updateSearchIndex(index -> created.forEach(index::add)));
+            return result;
+        } finally {
+            TransactionManager.afterCommit(patientCache::invalidateAll);
+        }
+    }
+    
+    @Override
+    public Patient getPatientById(int id) {
+        try {
+            // Inside a unit of work reads go through its transaction, so they see its own writes and are never cached
+            if (TransactionManager.isActive()) {
+                return queryById(id);
+            }
+            return patientCache.get(id, this::queryById);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    // Resolves many ids at once (e.g. patient names for a page of appointments): cached patients are served
+    // from memory and the rest are fetched with IN (...) queries instead of one round trip per id
+    @Override
+    public Map<Integer, Patient> getPatientsByIds(Collection<Integer> ids) {
+        try {
+            if (TransactionManager.isActive()) {
+                return queryByIds(ids);
+            }
+            return patientCache.getAll(ids, this::queryByIds);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new HashMap<>();
+        }
+    }
+    
+    public static CacheStats getPatientCacheStats() {
+        return patientCache.getStats();
+    }
+    
+    // Best matches for a free-text query (name words or prefixes, sound-alike names, phone number endings,
+    // email addresses), best first
+    @Override
+    public List<Patient> searchPatients(String query, int limit) {
+        List<Integer> ids = loadedSearchIndex().search(query, limit);
+        Map<Integer, Patient> patients = getPatientsByIds(ids);
+        List<Patient> results = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Patient patient = patients.get(id);
+            if (patient != null) {
+                results.add(patient);
+            }
+        }
+        return results;
+    }
+    
+    // Streams the patients table into a fresh search index and swaps it in, unless reading it failed part way.
+    // Meant for startup: writes made while it runs may be missed.
+    @Override
+    public void rebuildSearchIndex() {
+        PatientSearchIndex index = new PatientSearchIndex();
+        if (forEachPatient(index::add)) {
+            searchIndex = index;
+        }
+    }
+    
+    private PatientSearchIndex loadedSearchIndex() {
+        synchronized (JdbcPatientDAO.class) {
+            if (searchIndex == null) {
+                rebuildSearchIndex();
+            }
+            return searchIndex;
+        }
+    }
+    
+    private static void updateSearchIndex(Consumer<PatientSearchIndex> update) {
+        PatientSearchIndex index = searchIndex;
+        if (index != null) {
+            update.accept(index);
+        }
+    }
+    
+    private Patient queryById(int id) throws SQLException {
+        Patient patient = null;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+            
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                patient = new PatientRowMapper(rs).map(rs);
+            }
+        }
+        
+        return patient;
+    }
+    
+    private Map<Integer, Patient> queryByIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Patient> patients = new HashMap<>();
+        List<Integer> remaining = new ArrayList<>(ids);
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < remaining.size(); from += MAX_IN_LIST) {
+                List<Integer> chunk = remaining.subList(from, Math.min(from + MAX_IN_LIST, remaining.size()));
+                // Round the list length up to a power of two (padding with a repeated id) so that only a
+                // handful of distinct IN (...) statements ever reach the statement cache
+                int size = Integer.highestOneBit(chunk.size() - 1) << 1;
+                size = Math.max(1, Math.min(size, MAX_IN_LIST));
+                
+                try (PreparedStatement stmt = conn.prepareStatement(selectByIdsSql(size))) {
+                    for (int i = 0; i < size; i++) {
+                        stmt.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                    ResultSet rs = stmt.executeQuery();
+                    PatientRowMapper mapper = new PatientRowMapper(rs);
+                    
+                    while (rs.next()) {
+                        Patient patient = mapper.map(rs);
+                        patients.put(patient.getId(), patient);
+                    }
+                }
+            }
+        }
+        
+        return patients;
+    }
+    
+    private static String selectByIdsSql(int size) {
+        StringBuilder sql = new StringBuilder("SELECT " + PatientRowMapper.COLUMNS + " FROM patients WHERE id IN (?");
+        for (int i = 1; i < size; i++) {
+            sql.append(", ?");
+        }
+        return sql.append(')').toString();
+    }
+    
+    @Override
+    public List<Patient> getAllPatients() {
+        List<Patient> patients = new ArrayList<>();
+        forEachPatient(patients::add);
+        return patients;
+    }
+    
+    // Keyset pagination: pass 0 for the first page, then the id of the last patient of the previous page
+    @Override
+    public List<Patient> getPatientsAfter(int afterId, int limit) {
+        List<Patient> patients = new ArrayList<>(limit);
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PAGE_SQL)) {
+            
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            PatientRowMapper mapper = new PatientRowMapper(rs);
+            
+            while (rs.next()) {
+                patients.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return patients;
+    }
+    
+    // Streams every patient in id order without materialising the table; rows are fetched from a
+    // server-side cursor STREAM_FETCH_SIZE at a time, so memory use does not grow with the table
+    @Override
+    public boolean forEachPatient(Consumer<Patient> action) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL)) {
+            
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                PatientRowMapper mapper = new PatientRowMapper(rs);
+                while (rs.next()) {
+                    action.accept(mapper.map(rs));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    // Writes only the fields changed since the patient was read, and only if the row is still at the version read.
+    // A CONFLICT means another writer got there first: reload, reapply the edit and try again.
+    @Override
+    public UpdateResult updatePatient(Patient patient) {
+        Set<Patient.Field> changed = patient.getChangedFields();
+        if (changed.isEmpty()) {
+            return UpdateResult.UPDATED;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE patients SET ");
+        for (Patient.Field field : changed) {
+            sql.append(column(field)).append(" = ?, ");
+        }
+        sql.append("version = version + 1 WHERE id = ? AND version = ?");
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            for (Patient.Field field : changed) {
+                bindField(stmt, index++, patient, field);
+            }
+            stmt.setInt(index++, patient.getId());
+            stmt.setInt(index, patient.getVersion());
+            
+            if (stmt.executeUpdate() == 0) {
+                return versionOf(conn, patient.getId()) == null ? UpdateResult.NOT_FOUND : UpdateResult.CONFLICT;
+            }
+            patient.setVersion(patient.getVersion() + 1);
+            patient.markUnchanged();
+            TransactionManager.afterCommit(() -> {
+                patientCache.invalidate(patient.getId());
+                updateSearchIndex(search -> search.update(patient));
+            });
+            return UpdateResult.UPDATED;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return UpdateResult.FAILED;
+        }
+    }
+    
+    @Override
+    public boolean deletePatient(int id) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+            
+            stmt.setInt(1, id);
+            boolean deleted = stmt.executeUpdate() > 0;
+            TransactionManager.afterCommit(() -> {
+                patientCache.invalidate(id);
+                if (deleted) {
+                    updateSearchIndex(index -> index.remove(id));
+                    // Appointments go with the patient (ON DELETE CASCADE)
+                    JdbcAppointmentDAO.onPatientDeleted(id);
+                }
+            });
+            return deleted;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    private static Integer versionOf(Connection conn, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_VERSION_SQL)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+    
+    private static String column(Patient.Field field) {
+        return switch (field) {
+            case NAME -> "name";
+            case PHONE -> "phone";
+            case EMAIL -> "email";
+            case DATE_OF_BIRTH -> "date_of_birth";
+            case ADDRESS -> "address";
+        };
+    }
+    
+    private static void bindField(PreparedStatement stmt, int index, Patient patient, Patient.Field field)
+            throws SQLException {
+        switch (field) {
+            case NAME -> stmt.setString(index, patient.getName());
+            case PHONE -> stmt.setString(index, patient.getPhone());
+            case EMAIL -> stmt.setString(index, patient.getEmail());
+            case DATE_OF_BIRTH -> stmt.setObject(index, patient.getDateOfBirth());
+            case ADDRESS -> stmt.setString(index, patient.getAddress());
+        }
+    }
+    
+    private void bindPatient(PreparedStatement stmt, Patient patient) throws SQLException {
+        stmt.setString(1, patient.getName());
+        stmt.setString(2, patient.getPhone());
+        stmt.setString(3, patient.getEmail());
+        stmt.setObject(4, patient.getDateOfBirth());
+        stmt.setString(5, patient.getAddress());
+    }
+}
@@ -1,123 +1,34 @@
 package com.hospital.dao;
 
 import com.hospital.model.Patient;
-import com.hospital.util.DatabaseConnection;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
-public class PatientDAO {
-    
-    public void createPatient(Patient patient) {
-        String sql = "INSERT INTO patients (name, phone, email, date_of_birth, address) VALUES (?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setString(1, patient.getName());
-            stmt.setString(2, patient.getPhone());
-            stmt.setString(3, patient.getEmail());
-            stmt.setDate(4, Date.valueOf(patient.getDateOfBirth()));
-            stmt.setString(5, patient.getAddress());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        patient.setId(rs.getInt(1));
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-    
-    public Patient getPatientById(int id) {
-        String sql = "SELECT * FROM patients WHERE id = ?";
-        Patient patient = null;
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                patient = new Patient();
-                patient.setId(rs.getInt("id"));
-                patient.setName(rs.getString("name"));
-                patient.setPhone(rs.getString("phone"));
-                patient.setEmail(rs.getString("email"));
-                patient.setDateOfBirth(rs.getDate("date_of_birth").toLocalDate());
-                patient.setAddress(rs.getString("address"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
-        return patient;
-    }
-    
-    public List<Patient> getAllPatients() {
-        List<Patient> patients = new ArrayList<>();
-        String sql = "SELECT * FROM patients";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Patient patient = new Patient();
-                patient.setId(rs.getInt("id"));
-                patient.setName(rs.getString("name"));
-                patient.setPhone(rs.getString("phone"));
-                patient.setEmail(rs.getString("email"));
-                patient.setDateOfBirth(rs.getDate("date_of_birth").toLocalDate());
-                patient.setAddress(rs.getString("address"));
-                
-                patients.add(patient);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
-        return patients;
-    }
-    
-    public boolean updatePatient(Patient patient) {
-        String sql = "UPDATE patients SET name = ?, phone = ?, email = ?, date_of_birth = ?, address = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, patient.getName());
-            stmt.setString(2, patient.getPhone());
-            stmt.setString(3, patient.getEmail());
-            stmt.setDate(4, Date.valueOf(patient.getDateOfBirth()));
-            stmt.setString(5, patient.getAddress());
-            stmt.setInt(6, patient.getId());
-            
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-    
-    public boolean deletePatient(int id) {
-        String sql = "DELETE FROM patients WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
+public interface PatientDAO {
+    void createPatient(Patient patient);
+
+    BatchResult createPatients(List<Patient> patients);
+
+    Patient getPatientById(int id);
+
+    Map<Integer, Patient> getPatientsByIds(Collection<Integer> ids);
+
+    List<Patient> searchPatients(String query, int limit);
+
+    void rebuildSearchIndex();
+
+    List<Patient> getAllPatients();
+
+    // Keyset pagination: pass 0 for the first page, then the id of the last patient of the previous page
+    List<Patient> getPatientsAfter(int afterId, int limit);
+
+    // False if the cursor failed part way, after some patients may already have been passed to action
+    boolean forEachPatient(Consumer<Patient> action);
+
+    UpdateResult updatePatient(Patient patient);
+
+    boolean deletePatient(int id);
 }
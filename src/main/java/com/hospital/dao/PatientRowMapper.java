@@ -0,0 +1,43 @@
+package com.hospital.dao;
+
+import com.hospital.model.Patient;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// Maps rows selected with COLUMNS. Column positions are resolved once per ResultSet, not once per row.
+final class PatientRowMapper {
+    static final String COLUMNS = "id, version, name, phone, email, date_of_birth, address";
+
+    private final int id;
+    private final int version;
+    private final int name;
+    private final int phone;
+    private final int email;
+    private final int dateOfBirth;
+    private final int address;
+
+    PatientRowMapper(ResultSet rs) throws SQLException {
+        this.id = rs.findColumn("id");
+        this.version = rs.findColumn("version");
+        this.name = rs.findColumn("name");
+        this.phone = rs.findColumn("phone");
+        this.email = rs.findColumn("email");
+        this.dateOfBirth = rs.findColumn("date_of_birth");
+        this.address = rs.findColumn("address");
+    }
+
+    Patient map(ResultSet rs) throws SQLException {
+        Patient patient = new Patient();
+        patient.setId(rs.getInt(id));
+        patient.setVersion(rs.getInt(version));
+        patient.setName(rs.getString(name));
+        patient.setPhone(rs.getString(phone));
+        patient.setEmail(rs.getString(email));
+        patient.setDateOfBirth(rs.getObject(dateOfBirth, LocalDate.class));
+        patient.setAddress(rs.getString(address));
+        patient.markUnchanged();
+        return patient;
+    }
+}
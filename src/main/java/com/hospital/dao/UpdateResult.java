@@ -0,0 +1,13 @@
+package com.hospital.dao;
+
+public enum UpdateResult {
+    UPDATED,
+    // Someone else updated the row after the caller read it; reload and reapply the change
+    CONFLICT,
+    NOT_FOUND,
+    // The change is not allowed, e.g. a status transition AppointmentStatus forbids
+    INVALID,
+    // The appointment would overlap another of the doctor's scheduled appointments
+    OVERLAP,
+    FAILED
+}
@@ -0,0 +1,285 @@
+package com.hospital.index;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.model.Doctor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// In-memory free/busy index of scheduled appointments. Every doctor's working day is cut into fixed-length slots
+// and each tracked day keeps a BitSet with one bit per slot (set = busy); days with no appointments take no space.
+// The index is advisory: AppointmentDAO.bookAppointment still checks the table before inserting, so a stale bit can
+// cost a rejected booking but never a double booking.
+//
+// Only today onwards is kept: the first access on a new day drops every earlier day, so a long-running process
+// holds about HORIZON_DAYS of bookings rather than everything it has ever seen.
+public class AvailabilityIndex {
+    public static final int SLOT_MINUTES = Integer.getInteger("hospital.availability.slotMinutes", 15);
+    public static final int HORIZON_DAYS = Integer.getInteger("hospital.availability.horizonDays", 180);
+
+    private final Map<Integer, DoctorCalendar> calendars = new ConcurrentHashMap<>();
+    // Where each tracked appointment lives, so it can be removed knowing only its id
+    private final Map<Integer, Location> byAppointment = new ConcurrentHashMap<>();
+    // Days before this one have been dropped
+    private final AtomicReference<LocalDate> keptFrom = new AtomicReference<>(LocalDate.now());
+
+    private record Booking(int id, int patientId, LocalDateTime start, int durationMinutes) {
+    }
+
+    private record Location(DoctorCalendar calendar, LocalDate date) {
+    }
+
+    public void putDoctor(Doctor doctor) {
+        DoctorCalendar calendar = calendars.computeIfAbsent(doctor.getId(), id -> new DoctorCalendar());
+        calendar.setHours(doctor.getWorkStart(), doctor.getWorkEnd());
+    }
+
+    // Tracks a scheduled appointment; anything else (cancelled, completed, unknown doctor, before today) is ignored
+    public void add(Appointment appointment) {
+        if (appointment.getId() == 0 || appointment.getStatus() != AppointmentStatus.SCHEDULED) {
+            return;
+        }
+        if (appointment.getAppointmentTime().toLocalDate().isBefore(pruneToToday())) {
+            return;
+        }
+        DoctorCalendar calendar = calendars.get(appointment.getDoctorId());
+        if (calendar == null) {
+            return;
+        }
+        byAppointment.put(appointment.getId(), new Location(calendar, appointment.getAppointmentTime().toLocalDate()));
+        calendar.add(new Booking(appointment.getId(), appointment.getPatientId(),
+                appointment.getAppointmentTime(), appointment.getDurationMinutes()));
+    }
+
+    public void remove(int appointmentId) {
+        Location location = byAppointment.remove(appointmentId);
+        if (location != null) {
+            location.calendar().remove(location.date(), appointmentId);
+        }
+    }
+
+    // Re-indexes an appointment whose doctor, time, duration or status may have changed
+    public void update(Appointment appointment) {
+        remove(appointment.getId());
+        add(appointment);
+    }
+
+    public void removePatient(int patientId) {
+        for (DoctorCalendar calendar : calendars.values()) {
+            for (int id : calendar.removePatient(patientId)) {
+                byAppointment.remove(id);
+            }
+        }
+    }
+
+    public boolean isFree(int doctorId, LocalDateTime start, int durationMinutes) {
+        pruneToToday();
+        DoctorCalendar calendar = calendars.get(doctorId);
+        return calendar != null && calendar.isFree(start, durationMinutes);
+    }
+
+    // Up to count start times at or after the given time (rounded up to the slot grid) at which a visit of
+    // durationMinutes fits the doctor's working hours without touching a busy slot, searching HORIZON_DAYS ahead
+    public List<LocalDateTime> nextFreeSlots(int doctorId, LocalDateTime after, int count, int durationMinutes) {
+        pruneToToday();
+        DoctorCalendar calendar = calendars.get(doctorId);
+        if (calendar == null || count <= 0) {
+            return new ArrayList<>();
+        }
+        return calendar.nextFree(after, count, durationMinutes);
+    }
+
+    // Ids of every doctor who could see a patient for durationMinutes starting at the given time
+    public List<Integer> doctorsFreeAt(LocalDateTime start, int durationMinutes) {
+        pruneToToday();
+        List<Integer> doctorIds = new ArrayList<>();
+        for (Map.Entry<Integer, DoctorCalendar> entry : calendars.entrySet()) {
+            if (entry.getValue().isFree(start, durationMinutes)) {
+                doctorIds.add(entry.getKey());
+            }
+        }
+        doctorIds.sort(null);
+        return doctorIds;
+    }
+
+    public int size() {
+        return byAppointment.size();
+    }
+
+    // On the first call of a new day, drops the days before it; one caller does the pruning, the rest go on.
+    // Returns the first day kept.
+    private LocalDate pruneToToday() {
+        LocalDate today = LocalDate.now();
+        LocalDate kept = keptFrom.get();
+        if (!today.isAfter(kept) || !keptFrom.compareAndSet(kept, today)) {
+            return kept;
+        }
+        for (DoctorCalendar calendar : calendars.values()) {
+            for (int id : calendar.removeBefore(today)) {
+                byAppointment.remove(id);
+            }
+        }
+        return today;
+    }
+
+    private static int slotsFor(int minutes) {
+        return (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    private static final class DoctorCalendar {
+        private LocalTime workStart = Doctor.DEFAULT_WORK_START;
+        private int slotsPerDay;
+        private final Map<LocalDate, Day> days = new HashMap<>();
+
+        private static final class Day {
+            final List<Booking> bookings = new ArrayList<>(4);
+            final BitSet busy = new BitSet();
+        }
+
+        DoctorCalendar() {
+            setHours(Doctor.DEFAULT_WORK_START, Doctor.DEFAULT_WORK_END);
+        }
+
+        synchronized void setHours(LocalTime start, LocalTime end) {
+            workStart = start;
+            slotsPerDay = (int) Math.max(0, Duration.between(start, end).toMinutes() / SLOT_MINUTES);
+            for (Day day : days.values()) {
+                repaint(day);
+            }
+        }
+
+        synchronized void add(Booking booking) {
+            Day day = days.computeIfAbsent(booking.start().toLocalDate(), date -> new Day());
+            day.bookings.add(booking);
+            mark(day.busy, booking);
+        }
+
+        synchronized void remove(LocalDate date, int appointmentId) {
+            Day day = days.get(date);
+            if (day == null || !day.bookings.removeIf(booking -> booking.id() == appointmentId)) {
+                return;
+            }
+            if (day.bookings.isEmpty()) {
+                days.remove(date);
+            } else {
+                // Bookings may overlap (createAppointment does not check), so rebuild rather than clear bits
+                repaint(day);
+            }
+        }
+
+        synchronized List<Integer> removePatient(int patientId) {
+            List<Integer> removed = new ArrayList<>();
+            for (Iterator<Day> it = days.values().iterator(); it.hasNext(); ) {
+                Day day = it.next();
+                for (Booking booking : day.bookings) {
+                    if (booking.patientId() == patientId) {
+                        removed.add(booking.id());
+                    }
+                }
+                if (day.bookings.removeIf(booking -> booking.patientId() == patientId)) {
+                    if (day.bookings.isEmpty()) {
+                        it.remove();
+                    } else {
+                        repaint(day);
+                    }
+                }
+            }
+            return removed;
+        }
+
+        synchronized List<Integer> removeBefore(LocalDate date) {
+            List<Integer> removed = new ArrayList<>();
+            for (Iterator<Map.Entry<LocalDate, Day>> it = days.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<LocalDate, Day> entry = it.next();
+                if (entry.getKey().isBefore(date)) {
+                    for (Booking booking : entry.getValue().bookings) {
+                        removed.add(booking.id());
+                    }
+                    it.remove();
+                }
+            }
+            return removed;
+        }
+
+        synchronized boolean isFree(LocalDateTime start, int durationMinutes) {
+            long offset = Duration.between(workStart, start.toLocalTime()).toMinutes();
+            if (offset < 0 || durationMinutes <= 0) {
+                return false;
+            }
+            // An off-grid start occupies every slot it touches
+            int first = (int) (offset / SLOT_MINUTES);
+            long end = Math.ceilDiv(offset + durationMinutes, (long) SLOT_MINUTES);
+            if (end > slotsPerDay) {
+                return false;
+            }
+            Day day = days.get(start.toLocalDate());
+            int busyAt = day == null ? -1 : day.busy.nextSetBit(first);
+            return busyAt < 0 || busyAt >= end;
+        }
+
+        synchronized List<LocalDateTime> nextFree(LocalDateTime after, int count, int durationMinutes) {
+            List<LocalDateTime> slots = new ArrayList<>(count);
+            int needed = slotsFor(durationMinutes);
+            LocalDate date = after.toLocalDate();
+            LocalDate last = date.plusDays(HORIZON_DAYS);
+
+            for (int from = firstSlotAtOrAfter(after.toLocalTime()); !date.isAfter(last); date = date.plusDays(1), from = 0) {
+                Day day = days.get(date);
+                BitSet busy = day == null ? new BitSet() : day.busy;
+                int start = busy.nextClearBit(from);
+                while (start + needed <= slotsPerDay) {
+                    int busyAt = busy.nextSetBit(start);
+                    int runEnd = busyAt < 0 ? slotsPerDay : Math.min(busyAt, slotsPerDay);
+                    for (int slot = start; slot + needed <= runEnd; slot++) {
+                        slots.add(date.atTime(workStart).plusMinutes((long) slot * SLOT_MINUTES));
+                        if (slots.size() == count) {
+                            return slots;
+                        }
+                    }
+                    if (busyAt < 0) {
+                        break;
+                    }
+                    start = busy.nextClearBit(busyAt);
+                }
+            }
+            return slots;
+        }
+
+        private int firstSlotAtOrAfter(LocalTime time) {
+            long seconds = Duration.between(workStart, time).getSeconds();
+            if (seconds <= 0) {
+                return 0;
+            }
+            return (int) ((seconds + SLOT_MINUTES * 60L - 1) / (SLOT_MINUTES * 60L));
+        }
+
+        private void repaint(Day day) {
+            day.busy.clear();
+            for (Booking booking : day.bookings) {
+                mark(day.busy, booking);
+            }
+        }
+
+        // Sets every slot the booking touches, clipped to working hours
+        private void mark(BitSet busy, Booking booking) {
+            long startMinutes = Duration.between(workStart, booking.start().toLocalTime()).toMinutes();
+            long endMinutes = startMinutes + booking.durationMinutes();
+            int first = (int) Math.max(0, Math.floorDiv(startMinutes, SLOT_MINUTES));
+            int end = (int) Math.min(slotsPerDay, Math.ceilDiv(endMinutes, (long) SLOT_MINUTES));
+            if (first < end) {
+                busy.set(first, end);
+            }
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.hospital.index;
+
+import com.hospital.model.Patient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory search over patient names, phone numbers and emails. Queries are split into terms and every term
+// must match: digit terms match the end of the phone number, terms with an '@' match the start of the email, and
+// word terms match the start of a name word, a sound-alike name word (Soundex) or the start of a word of the
+// email's local part. Matches are scored (exact beats prefix beats phonetic) and the best K are returned.
+//
+// Name and email words live in sorted maps so prefix lookups are range scans; phone numbers are bucketed by their
+// last PHONE_BUCKET_DIGITS digits. The most selective term picks the candidates and the other terms are checked
+// against the stored fields, so a query only ever touches a bounded number of patients. Only the searchable
+// fields are held (in a map keyed by patient id, so sparse ids after archiving or imports cost nothing); callers
+// load the patients themselves.
+public class PatientSearchIndex {
+    // Once K results are in hand, stop after scoring this many candidates (e.g. for a one-letter prefix)
+    private static final int MAX_SCAN = 5_000;
+    private static final int PHONE_BUCKET_DIGITS = 4;
+    private static final int PHONE_BUCKETS = 10_000;
+
+    private static final int EXACT = 10;
+    private static final int NAME_WORD = 8;
+    private static final int PREFIX = 5;
+    private static final int EMAIL_WORD = 4;
+    private static final int PHONETIC = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, IdList> nameWords = new TreeMap<>();
+    private final Map<String, IdList> soundexCodes = new HashMap<>();
+    private final NavigableMap<String, IdList> emailWords = new TreeMap<>();
+    private final Map<Integer, IdList> phoneSuffixes = new HashMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    private record Entry(String[] words, String phone, String email) {
+    }
+
+    private record Hit(int id, int score) {
+    }
+
+    private enum Kind { PHONE, EMAIL, WORD }
+
+    private record Term(Kind kind, String text, String soundex) {
+    }
+
+    public void add(Patient patient) {
+        int id = patient.getId();
+        String[] words = words(normalize(patient.getName()));
+        String phone = digits(patient.getPhone());
+        String email = normalize(patient.getEmail());
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            for (int i = 0; i < words.length; i++) {
+                // Keep one copy of each distinct word: the map key
+                words[i] = post(nameWords, words[i], id);
+                post(soundexCodes, soundex(words[i]), id);
+            }
+            for (String word : words(localPart(email))) {
+                post(emailWords, word, id);
+            }
+            if (!phone.isEmpty()) {
+                phoneSuffixes.computeIfAbsent(phoneBucket(phone), k -> new IdList()).add(id);
+            }
+            entries.put(id, new Entry(words, phone, email));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void update(Patient patient) {
+        add(patient);
+    }
+
+    public void remove(int patientId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of the best matches, best first; ties go to the patient indexed first
+    public List<Integer> search(String query, int limit) {
+        Term[] terms = parse(query);
+        if (limit <= 0 || terms.length == 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Drive the search from the most selective term and check the others against each candidate
+            Term driver = terms[0];
+            long driverSize = Long.MAX_VALUE;
+            for (Term term : terms) {
+                long count = estimate(term);
+                if (count < driverSize) {
+                    driver = term;
+                    driverSize = count;
+                }
+            }
+
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, PatientSearchIndex::compareWorstFirst);
+            // At most about MAX_SCAN ids, whatever their values
+            Set<Integer> seen = new HashSet<>();
+            int scanned = 0;
+            for (Iterator<IdList> lists = candidates(driver); lists.hasNext() && (scanned < MAX_SCAN || best.size() < limit); ) {
+                IdList ids = lists.next();
+                for (int i = 0; i < ids.size && (scanned < MAX_SCAN || best.size() < limit); i++) {
+                    int id = ids.ids[i];
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+                    scanned++;
+                    int score = score(entries.get(id), terms);
+                    if (score > 0) {
+                        best.add(new Hit(id, score));
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+
+            Hit[] hits = best.toArray(new Hit[0]);
+            Arrays.sort(hits, (a, b) -> compareWorstFirst(b, a));
+            List<Integer> result = new ArrayList<>(hits.length);
+            for (Hit hit : hits) {
+                result.add(hit.id());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whitespace separates terms; phone numbers and emails stay whole, anything else is split into words
+    private static Term[] parse(String query) {
+        List<Term> terms = new ArrayList<>();
+        for (String text : normalize(query).split("\\s+")) {
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (isPhoneTerm(text)) {
+                terms.add(new Term(Kind.PHONE, digits(text), ""));
+            } else if (text.indexOf('@') >= 0) {
+                terms.add(new Term(Kind.EMAIL, text, ""));
+            } else {
+                for (String word : words(text)) {
+                    terms.add(new Term(Kind.WORD, word, soundex(word)));
+                }
+            }
+        }
+        return terms.toArray(new Term[0]);
+    }
+
+    // Number of candidates the term would produce, counted no further than MAX_SCAN
+    private long estimate(Term term) {
+        long count = 0;
+        for (Iterator<IdList> lists = candidates(term); lists.hasNext() && count < MAX_SCAN; ) {
+            count += lists.next().size;
+        }
+        return count;
+    }
+
+    // Posting lists that can contain matches for the term, most relevant first, produced lazily
+    private Iterator<IdList> candidates(Term term) {
+        List<Iterator<IdList>> sources = new ArrayList<>(4);
+        switch (term.kind()) {
+            case PHONE:
+                sources.add(phoneCandidates(term.text()));
+                break;
+            case EMAIL:
+                // Every word before the '@' is complete, so the rarest one bounds the candidates
+                IdList rarest = null;
+                for (String word : words(localPart(term.text()))) {
+                    IdList ids = emailWords.get(word);
+                    if (ids == null) {
+                        return List.<IdList>of().iterator();
+                    }
+                    if (rarest == null || ids.size < rarest.size) {
+                        rarest = ids;
+                    }
+                }
+                if (rarest != null) {
+                    sources.add(List.of(rarest).iterator());
+                }
+                break;
+            default:
+                IdList exact = nameWords.get(term.text());
+                if (exact != null) {
+                    sources.add(List.of(exact).iterator());
+                }
+                sources.add(prefixRange(nameWords, term.text()));
+                IdList phonetic = soundexCodes.get(term.soundex());
+                if (phonetic != null) {
+                    sources.add(List.of(phonetic).iterator());
+                }
+                sources.add(prefixRange(emailWords, term.text()));
+        }
+        return concat(sources);
+    }
+
+    // A long suffix names one bucket; a shorter one covers every bucket ending in it
+    private Iterator<IdList> phoneCandidates(String suffix) {
+        List<IdList> lists = new ArrayList<>();
+        if (suffix.length() >= PHONE_BUCKET_DIGITS) {
+            IdList ids = phoneSuffixes.get(phoneBucket(suffix));
+            if (ids != null) {
+                lists.add(ids);
+            }
+        } else {
+            int step = (int) Math.pow(10, suffix.length());
+            for (int bucket = Integer.parseInt(suffix); bucket < PHONE_BUCKETS; bucket += step) {
+                IdList ids = phoneSuffixes.get(bucket);
+                if (ids != null) {
+                    lists.add(ids);
+                }
+            }
+        }
+        return lists.iterator();
+    }
+
+    private static Iterator<IdList> prefixRange(NavigableMap<String, IdList> map, String prefix) {
+        if (prefix.isEmpty()) {
+            return List.<IdList>of().iterator();
+        }
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().iterator();
+    }
+
+    private static Iterator<IdList> concat(List<Iterator<IdList>> sources) {
+        return new Iterator<>() {
+            private int current;
+
+            @Override
+            public boolean hasNext() {
+                while (current < sources.size() && !sources.get(current).hasNext()) {
+                    current++;
+                }
+                return current < sources.size();
+            }
+
+            @Override
+            public IdList next() {
+                hasNext();
+                return sources.get(current).next();
+            }
+        };
+    }
+
+    // Sum of the per-term scores, or 0 if any term does not match
+    private static int score(Entry entry, Term[] terms) {
+        int total = 0;
+        for (Term term : terms) {
+            int score = scoreTerm(entry, term);
+            if (score == 0) {
+                return 0;
+            }
+            total += score;
+        }
+        return total;
+    }
+
+    private static int scoreTerm(Entry entry, Term term) {
+        String text = term.text();
+        if (term.kind() == Kind.PHONE) {
+            return entry.phone().equals(text) ? EXACT : entry.phone().endsWith(text) ? PREFIX : 0;
+        }
+        if (term.kind() == Kind.EMAIL) {
+            return entry.email().equals(text) ? EXACT : entry.email().startsWith(text) ? PREFIX : 0;
+        }
+
+        int score = 0;
+        for (String word : entry.words()) {
+            if (word.equals(text)) {
+                return NAME_WORD;
+            } else if (word.startsWith(text)) {
+                score = PREFIX;
+            } else if (score < PHONETIC && !term.soundex().isEmpty() && term.soundex().equals(soundex(word))) {
+                score = PHONETIC;
+            }
+        }
+        if (score < EMAIL_WORD && emailHasWordStartingWith(entry.email(), text)) {
+            score = EMAIL_WORD;
+        }
+        return score;
+    }
+
+    private static boolean emailHasWordStartingWith(String email, String prefix) {
+        int end = email.indexOf('@');
+        end = end < 0 ? email.length() : end;
+        for (int start = 0; start < end; ) {
+            if (email.startsWith(prefix, start)) {
+                return true;
+            }
+            while (start < end && Character.isLetterOrDigit(email.charAt(start))) {
+                start++;
+            }
+            start++;
+        }
+        return false;
+    }
+
+    // Lower score first, then later id, so the heap head is always the hit to drop
+    private static int compareWorstFirst(Hit a, Hit b) {
+        return a.score() != b.score() ? Integer.compare(a.score(), b.score()) : Integer.compare(b.id(), a.id());
+    }
+
+    private void removeLocked(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String word : entry.words()) {
+            unpost(nameWords, word, id);
+            unpost(soundexCodes, soundex(word), id);
+        }
+        for (String word : words(localPart(entry.email()))) {
+            unpost(emailWords, word, id);
+        }
+        if (!entry.phone().isEmpty()) {
+            unpost(phoneSuffixes, phoneBucket(entry.phone()), id);
+        }
+    }
+
+    // Adds the id to the key's posting list and returns the map's own copy of the key
+    private static String post(Map<String, IdList> map, String key, int id) {
+        if (key.isEmpty()) {
+            return key;
+        }
+        IdList ids = map.get(key);
+        if (ids == null) {
+            ids = new IdList();
+            map.put(key, ids);
+            ids.key = key;
+        }
+        ids.add(id);
+        return ids.key;
+    }
+
+    private static <K> void unpost(Map<K, IdList> map, K key, int id) {
+        IdList ids = map.get(key);
+        if (ids != null && ids.remove(id) && ids.size == 0) {
+            map.remove(key);
+        }
+    }
+
+    private static int phoneBucket(String digits) {
+        int from = Math.max(0, digits.length() - PHONE_BUCKET_DIGITS);
+        return Integer.parseInt(digits.substring(from));
+    }
+
+    private static boolean isPhoneTerm(String term) {
+        int digits = 0;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (Character.isDigit(c)) {
+                digits++;
+            } else if (c != '-' && c != '+' && c != '(' && c != ')' && c != '.') {
+                return false;
+            }
+        }
+        return digits > 0;
+    }
+
+    // Lower-case letter/digit runs, e.g. "o'brien-smith" -> [o, brien, smith]
+    private static String[] words(String text) {
+        List<String> words = new ArrayList<>(3);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static String localPart(String email) {
+        int at = email.indexOf('@');
+        return at < 0 ? email : email.substring(0, at);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String digits(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isDigit(value.charAt(i))) {
+                digits.append(value.charAt(i));
+            }
+        }
+        return digits.toString();
+    }
+
+    // American Soundex: first letter plus three digits for the following consonant groups, e.g. "robert" -> R163
+    static String soundex(String word) {
+        StringBuilder code = new StringBuilder(4);
+        char last = 0;
+        for (int i = 0; i < word.length() && code.length() < 4; i++) {
+            char c = Character.toUpperCase(word.charAt(i));
+            if (c < 'A' || c > 'Z') {
+                continue;
+            }
+            char digit = "01230120022455012623010202".charAt(c - 'A');
+            if (code.length() == 0) {
+                code.append(c);
+            } else if (digit != '0' && digit != last) {
+                code.append(digit);
+            }
+            // H and W do not separate letters with the same code; vowels do
+            if (c != 'H' && c != 'W') {
+                last = digit;
+            }
+        }
+        if (code.length() == 0) {
+            return "";
+        }
+        while (code.length() < 4) {
+            code.append('0');
+        }
+        return code.toString();
+    }
+
+    // Growable list of patient ids; order is not kept on removal
+    private static final class IdList {
+        String key;
+        int[] ids = new int[2];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hospital.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Times every execute* call of the statement it wraps. Queries report the time to execute and return the first
+// rows; updates and batches also report the rows they touched. Bound values are never looked at, only how many
+// parameter positions were set, which the slow-query log prints in their place.
+class InstrumentedStatement implements InvocationHandler {
+    private final Statement target;
+    private final String sql;
+    private OperationStats stats;
+    private int parameters;
+
+    InstrumentedStatement(Statement target, String sql) {
+        this.target = target;
+        this.sql = sql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.startsWith("execute")) {
+            return execute(name, method, args);
+        }
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+            parameters = Math.max(parameters, index);
+        }
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return forward(method, args);
+        }
+    }
+
+    private Object execute(String name, Method method, Object[] args) throws Throwable {
+        OperationStats operation = statsFor(args);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = forward(method, args);
+        } catch (SQLException e) {
+            Metrics.recordQuery(operation, System.nanoTime() - start, 0, parameters, e);
+            throw e;
+        }
+        Metrics.recordQuery(operation, System.nanoTime() - start, rowsOf(name, result), parameters, null);
+        return result;
+    }
+
+    // A plain Statement passes its SQL to execute; a prepared one was given it up front
+    private OperationStats statsFor(Object[] args) {
+        if (sql == null && args != null && args.length > 0 && args[0] instanceof String text) {
+            return Metrics.query(text);
+        }
+        if (stats == null) {
+            stats = Metrics.query(sql);
+        }
+        return stats;
+    }
+
+    private static long rowsOf(String name, Object result) {
+        switch (name) {
+            case "executeUpdate":
+            case "executeLargeUpdate":
+                return ((Number) result).longValue();
+            case "executeBatch":
+            case "executeLargeBatch":
+                long rows = 0;
+                if (result instanceof int[] counts) {
+                    for (int count : counts) {
+                        rows += rowsOf(count);
+                    }
+                } else if (result instanceof long[] counts) {
+                    for (long count : counts) {
+                        rows += rowsOf(count);
+                    }
+                }
+                return rows;
+            default:
+                return 0;
+        }
+    }
+
+    // SUCCESS_NO_INFO still means one row was written; EXECUTE_FAILED means none
+    private static long rowsOf(long count) {
+        return count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+    }
+
+    private Object forward(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.hospital.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.regex.Pattern;
+
+// Process-wide metrics for the DAO layer: latency histograms and row counts per statement shape and per DAO method,
+// SQL errors by SQLState, a slow-query log and connection pool wait time. Read them through JMX (registerMBean),
+// as Prometheus text (writePrometheus / exportTo) or directly.
+//
+// Everything is on unless -Dhospital.metrics.enabled=false. Every hook checks the ENABLED constant first, so when
+// disabled nothing is wrapped or recorded and the JIT drops the checks altogether.
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("hospital.metrics.enabled", "true"));
+    static final long SLOW_QUERY_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("hospital.metrics.slowQueryMs", 200));
+    // Distinct statement shapes and DAO methods tracked; anything past this is counted under OTHER
+    private static final int MAX_OPERATIONS = 500;
+    private static final String OTHER = "other";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, OperationStats> queries = new ConcurrentHashMap<>();
+    // SQL text as prepared -> stats of its shape, so the shape is worked out once per distinct string
+    private static final Map<String, OperationStats> queriesBySql = new ConcurrentHashMap<>();
+    private static final Map<String, OperationStats> daoCalls = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> errorsBySqlState = new ConcurrentHashMap<>();
+    private static final OperationStats poolWait = new OperationStats("borrow");
+    private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    record Gauge(String name, String help, boolean counter, DoubleSupplier value) {
+    }
+
+    private Metrics() {
+    }
+
+    // Wraps a JDBC statement so every execute is timed and its errors counted. sql is the prepared text, or null
+    // for a plain Statement whose SQL arrives with each execute.
+    public static <S extends Statement> S instrument(S statement, Class<S> type, String sql) {
+        if (!ENABLED) {
+            return statement;
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new InstrumentedStatement(statement, sql)));
+    }
+
+    public static void recordDaoCall(String method, long nanos, long rows, boolean failed) {
+        if (ENABLED) {
+            lookup(daoCalls, method).record(nanos, rows, failed);
+        }
+    }
+
+    public static void recordPoolWait(long nanos) {
+        if (ENABLED) {
+            poolWait.record(nanos, 0, false);
+        }
+    }
+
+    // A value read at export time, e.g. pool occupancy; counter marks a value that only ever grows
+    public static void registerGauge(String name, String help, boolean counter, DoubleSupplier value) {
+        if (ENABLED) {
+            gauges.put(name, new Gauge(name, help, counter, value));
+        }
+    }
+
+    static OperationStats query(String sql) {
+        if (sql == null) {
+            return lookup(queries, OTHER);
+        }
+        OperationStats stats = queriesBySql.get(sql);
+        if (stats == null) {
+            stats = lookup(queries, shapeOf(sql));
+            if (queriesBySql.size() < MAX_OPERATIONS * 4) {
+                queriesBySql.putIfAbsent(sql, stats);
+            }
+        }
+        return stats;
+    }
+
+    static void recordQuery(OperationStats stats, long nanos, long rows, int parameters, SQLException error) {
+        stats.record(nanos, rows, error != null);
+        if (error != null) {
+            String state = error.getSQLState() == null ? "unknown" : error.getSQLState();
+            errorsBySqlState.computeIfAbsent(state, s -> new LongAdder()).increment();
+        }
+        if (nanos >= SLOW_QUERY_NANOS) {
+            stats.recordSlow();
+            // Only the statement shape is logged; bound values may be patient data and never leave the driver
+            System.err.printf("[slow query] %d ms, %d bound parameter(s) redacted%s: %s%n",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), parameters,
+                    error == null ? "" : ", failed with SQLState " + error.getSQLState(), stats.getName());
+        }
+    }
+
+    // The statement with string literals replaced by ?, IN (?, ?, ...) lists of any length collapsed and whitespace
+    // normalised, so statements that differ only in data or list length share one entry
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("IN (?, ...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static OperationStats lookup(Map<String, OperationStats> map, String name) {
+        OperationStats stats = map.get(name);
+        if (stats != null) {
+            return stats;
+        }
+        return map.computeIfAbsent(map.size() < MAX_OPERATIONS ? name : OTHER, OperationStats::new);
+    }
+
+    public static Collection<OperationStats> getQueries() {
+        return new ArrayList<>(queries.values());
+    }
+
+    public static Collection<OperationStats> getDaoCalls() {
+        return new ArrayList<>(daoCalls.values());
+    }
+
+    public static OperationStats getPoolWait() {
+        return poolWait;
+    }
+
+    public static Map<String, Long> getErrorsBySqlState() {
+        Map<String, Long> errors = new TreeMap<>();
+        errorsBySqlState.forEach((state, count) -> errors.put(state, count.sum()));
+        return errors;
+    }
+
+    static List<Gauge> getGauges() {
+        return new ArrayList<>(gauges.values());
+    }
+
+    public static void reset() {
+        queries.values().forEach(OperationStats::reset);
+        daoCalls.values().forEach(OperationStats::reset);
+        errorsBySqlState.clear();
+        poolWait.reset();
+    }
+
+    public static void writePrometheus(Writer out) throws IOException {
+        PrometheusFormat.write(out);
+    }
+
+    // Rewrites file with the current Prometheus text; the file is replaced in one move, so a scraper reading it
+    // never sees half an export
+    public static void exportTo(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            PrometheusFormat.write(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Publishes the metrics as com.hospital:type=Metrics on the platform MBean server
+    public static void registerMBean() {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(),
+                    new ObjectName(MetricsBean.OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by an earlier call
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
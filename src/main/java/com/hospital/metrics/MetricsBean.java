@@ -0,0 +1,71 @@
+package com.hospital.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+class MetricsBean implements MetricsMXBean {
+    static final String OBJECT_NAME = "com.hospital:type=Metrics";
+
+    @Override
+    public long getStatementCount() {
+        return Metrics.getQueries().stream().mapToLong(stats -> stats.getLatency().getCount()).sum();
+    }
+
+    @Override
+    public long getStatementErrors() {
+        return Metrics.getQueries().stream().mapToLong(OperationStats::getErrors).sum();
+    }
+
+    @Override
+    public long getSlowStatements() {
+        return Metrics.getQueries().stream().mapToLong(OperationStats::getSlow).sum();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsBySqlState() {
+        return Metrics.getErrorsBySqlState();
+    }
+
+    @Override
+    public List<OperationSummary> getStatements() {
+        return summarise(Metrics.getQueries());
+    }
+
+    @Override
+    public List<OperationSummary> getDaoCalls() {
+        return summarise(Metrics.getDaoCalls());
+    }
+
+    @Override
+    public OperationSummary getPoolWait() {
+        return new OperationSummary(Metrics.getPoolWait());
+    }
+
+    @Override
+    public String getPrometheusText() {
+        StringWriter out = new StringWriter();
+        try {
+            PrometheusFormat.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void reset() {
+        Metrics.reset();
+    }
+
+    private static List<OperationSummary> summarise(Collection<OperationStats> operations) {
+        return operations.stream()
+                .sorted(Comparator.comparing(OperationStats::getName))
+                .map(OperationSummary::new)
+                .toList();
+    }
+}
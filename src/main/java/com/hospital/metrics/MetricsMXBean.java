@@ -0,0 +1,25 @@
+package com.hospital.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+// JMX view of Metrics, registered as com.hospital:type=Metrics
+public interface MetricsMXBean {
+    long getStatementCount();
+
+    long getStatementErrors();
+
+    long getSlowStatements();
+
+    Map<String, Long> getErrorsBySqlState();
+
+    List<OperationSummary> getStatements();
+
+    List<OperationSummary> getDaoCalls();
+
+    OperationSummary getPoolWait();
+
+    String getPrometheusText();
+
+    void reset();
+}
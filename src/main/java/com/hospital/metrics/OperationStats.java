@@ -0,0 +1,57 @@
+package com.hospital.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for one kind of operation: a statement shape, a DAO method or the pool's borrow path
+public class OperationStats {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, long rowCount, boolean failed) {
+        latency.record(nanos);
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    void recordSlow() {
+        slow.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getSlow() {
+        return slow.sum();
+    }
+
+    void reset() {
+        latency.reset();
+        rows.reset();
+        errors.reset();
+        slow.reset();
+    }
+}
@@ -0,0 +1,76 @@
+package com.hospital.metrics;
+
+// Point-in-time copy of an OperationStats, latencies in microseconds
+public class OperationSummary {
+    private final String name;
+    private final long count;
+    private final long rows;
+    private final long errors;
+    private final long slow;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    OperationSummary(OperationStats stats) {
+        LatencyHistogram latency = stats.getLatency();
+        long[] percentiles = latency.getValuesAtPercentiles(50, 99, 99.9);
+        this.name = stats.getName();
+        this.count = latency.getCount();
+        this.rows = stats.getRows();
+        this.errors = stats.getErrors();
+        this.slow = stats.getSlow();
+        this.meanMicros = latency.getMeanNanos() / 1000.0;
+        this.p50Micros = percentiles[0] / 1000.0;
+        this.p99Micros = percentiles[1] / 1000.0;
+        this.p999Micros = percentiles[2] / 1000.0;
+        this.maxMicros = latency.getMaxNanos() / 1000.0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getSlow() {
+        return slow;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, rows=%d, errors=%d, slow=%d, mean=%.1fus, p50=%.1fus, p99=%.1fus, max=%.1fus}",
+                name, count, rows, errors, slow, meanMicros, p50Micros, p99Micros, maxMicros);
+    }
+}
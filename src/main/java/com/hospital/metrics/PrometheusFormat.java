@@ -0,0 +1,114 @@
+package com.hospital.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Writes Metrics in the Prometheus text exposition format (version 0.0.4). Latencies are summaries in seconds with
+// p50/p90/p99/p99.9 quantiles taken from the histograms.
+final class PrometheusFormat {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private PrometheusFormat() {
+    }
+
+    static void write(Writer out) throws IOException {
+        List<OperationStats> queries = sorted(Metrics.getQueries());
+        summary(out, "hospital_query_duration_seconds", "Statement execution time by statement shape.",
+                "query", queries);
+        counter(out, "hospital_query_rows_total", "Rows written by inserts, updates and deletes, by statement shape.",
+                "query", queries, OperationStats::getRows);
+        counter(out, "hospital_query_errors_total", "Statements that failed, by statement shape.",
+                "query", queries, OperationStats::getErrors);
+        counter(out, "hospital_query_slow_total", "Statements slower than hospital.metrics.slowQueryMs, by statement shape.",
+                "query", queries, OperationStats::getSlow);
+
+        header(out, "hospital_sql_errors_total", "Failed statements by SQLState.", "counter");
+        for (Map.Entry<String, Long> entry : Metrics.getErrorsBySqlState().entrySet()) {
+            sample(out, "hospital_sql_errors_total", "sqlstate", entry.getKey(), null, entry.getValue());
+        }
+
+        List<OperationStats> calls = sorted(Metrics.getDaoCalls());
+        summary(out, "hospital_dao_call_duration_seconds", "DAO method time, including cache hits.", "method", calls);
+        counter(out, "hospital_dao_rows_total", "Rows returned or written by DAO methods.", "method", calls,
+                OperationStats::getRows);
+        counter(out, "hospital_dao_errors_total", "DAO calls that threw.", "method", calls, OperationStats::getErrors);
+
+        summary(out, "hospital_pool_wait_seconds", "Time spent waiting to borrow a pooled connection.", null,
+                List.of(Metrics.getPoolWait()));
+
+        for (Metrics.Gauge gauge : Metrics.getGauges().stream().sorted(Comparator.comparing(Metrics.Gauge::name)).toList()) {
+            header(out, gauge.name(), gauge.help(), gauge.counter() ? "counter" : "gauge");
+            out.write(gauge.name() + " " + format(gauge.value().getAsDouble()) + "\n");
+        }
+    }
+
+    private static void summary(Writer out, String name, String help, String label, List<OperationStats> operations)
+            throws IOException {
+        header(out, name, help, "summary");
+        for (OperationStats operation : operations) {
+            LatencyHistogram latency = operation.getLatency();
+            String value = label == null ? null : operation.getName();
+            long[] nanos = latency.getValuesAtPercentiles(100 * QUANTILES[0], 100 * QUANTILES[1],
+                    100 * QUANTILES[2], 100 * QUANTILES[3]);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                sample(out, name, label, value, "quantile=\"" + QUANTILES[i] + "\"", seconds(nanos[i]));
+            }
+            sample(out, name + "_sum", label, value, null, seconds(latency.getSumNanos()));
+            sample(out, name + "_count", label, value, null, latency.getCount());
+        }
+    }
+
+    private static void counter(Writer out, String name, String help, String label, List<OperationStats> operations,
+                                ToLongFunction<OperationStats> value) throws IOException {
+        header(out, name, help, "counter");
+        for (OperationStats operation : operations) {
+            sample(out, name, label, operation.getName(), null, value.applyAsLong(operation));
+        }
+    }
+
+    private static void header(Writer out, String name, String help, String type) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void sample(Writer out, String name, String label, String labelValue, String extraLabel,
+                               double value) throws IOException {
+        out.write(name);
+        if (label != null || extraLabel != null) {
+            out.write('{');
+            if (label != null) {
+                out.write(label + "=\"" + escape(labelValue) + "\"");
+            }
+            if (extraLabel != null) {
+                out.write((label != null ? "," : "") + extraLabel);
+            }
+            out.write('}');
+        }
+        out.write(" " + format(value) + "\n");
+    }
+
+    private static List<OperationStats> sorted(Collection<OperationStats> operations) {
+        return operations.stream().sorted(Comparator.comparing(OperationStats::getName)).toList();
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    // Label values escape backslash, double quote and newline
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -1,23 +1,47 @@
 package com.hospital.model;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class Appointment {
+    public static final int DEFAULT_DURATION_MINUTES = Integer.getInteger("hospital.appointment.defaultDurationMinutes", 30);
+    public static final int MAX_DURATION_MINUTES = 240;
+
+    // Fields a setter has touched since the appointment was loaded or saved; AppointmentDAO.updateAppointment
+    // writes only these
+    public enum Field {PATIENT_ID, DOCTOR_ID, APPOINTMENT_TIME, DURATION_MINUTES, PURPOSE, STATUS}
+
     private int id;
+    private int version;
     private int patientId;
-    private String doctorName;
+    private int doctorId;
     private LocalDateTime appointmentTime;
+    private int durationMinutes = DEFAULT_DURATION_MINUTES;
     private String purpose;
-    private String status; // Scheduled, Completed, Cancelled
+    private AppointmentStatus status = AppointmentStatus.SCHEDULED;
+    private final EnumSet<Field> changed = EnumSet.noneOf(Field.class);
 
     public Appointment() {}
 
-    public Appointment(int patientId, String doctorName, LocalDateTime appointmentTime, String purpose) {
+    public Appointment(int patientId, int doctorId, LocalDateTime appointmentTime, String purpose) {
         this.patientId = patientId;
-        this.doctorName = doctorName;
+        this.doctorId = doctorId;
         this.appointmentTime = appointmentTime;
         this.purpose = purpose;
-        this.status = "Scheduled";
+        this.changed.addAll(EnumSet.allOf(Field.class));
+    }
+
+    public Appointment(Appointment other) {
+        this.id = other.id;
+        this.version = other.version;
+        this.patientId = other.patientId;
+        this.doctorId = other.doctorId;
+        this.appointmentTime = other.appointmentTime;
+        this.durationMinutes = other.durationMinutes;
+        this.purpose = other.purpose;
+        this.status = other.status;
+        this.changed.addAll(other.changed);
     }
 
     // Getters and Setters
@@ -29,20 +53,31 @@ public class Appointment {
         this.id = id;
     }
 
+    // Incremented by the database on every update; an update based on an older version is rejected
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public int getPatientId() {
         return patientId;
     }
 
     public void setPatientId(int patientId) {
         this.patientId = patientId;
+        changed.add(Field.PATIENT_ID);
     }
 
-    public String getDoctorName() {
-        return doctorName;
+    public int getDoctorId() {
+        return doctorId;
     }
 
-    public void setDoctorName(String doctorName) {
-        this.doctorName = doctorName;
+    public void setDoctorId(int doctorId) {
+        this.doctorId = doctorId;
+        changed.add(Field.DOCTOR_ID);
     }
 
     public LocalDateTime getAppointmentTime() {
@@ -51,6 +86,20 @@ public class Appointment {
 
     public void setAppointmentTime(LocalDateTime appointmentTime) {
         this.appointmentTime = appointmentTime;
+        changed.add(Field.APPOINTMENT_TIME);
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(int durationMinutes) {
+        this.durationMinutes = durationMinutes;
+        changed.add(Field.DURATION_MINUTES);
+    }
+
+    public LocalDateTime getEndTime() {
+        return appointmentTime.plusMinutes(durationMinutes);
     }
 
     public String getPurpose() {
@@ -59,25 +108,37 @@ public class Appointment {
 
     public void setPurpose(String purpose) {
         this.purpose = purpose;
+        changed.add(Field.PURPOSE);
     }
 
-    public String getStatus() {
+    public AppointmentStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(AppointmentStatus status) {
         this.status = status;
+        changed.add(Field.STATUS);
+    }
+
+    public Set<Field> getChangedFields() {
+        return EnumSet.copyOf(changed);
+    }
+
+    public void markUnchanged() {
+        changed.clear();
     }
 
     @Override
     public String toString() {
         return "Appointment{" +
                 "id=" + id +
+                ", version=" + version +
                 ", patientId=" + patientId +
-                ", doctorName='" + doctorName + '\'' +
+                ", doctorId=" + doctorId +
                 ", appointmentTime=" + appointmentTime +
+                ", durationMinutes=" + durationMinutes +
                 ", purpose='" + purpose + '\'' +
-                ", status='" + status + '\'' +
+                ", status=" + status +
                 '}';
     }
 }
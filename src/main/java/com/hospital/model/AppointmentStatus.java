@@ -0,0 +1,49 @@
+package com.hospital.model;
+
+// Lifecycle of an appointment, stored in appointments.status as the TINYINT code. A scheduled visit ends either
+// Completed or Cancelled, and both of those are final: a completed visit cannot be cancelled and a cancelled one
+// cannot be brought back. Codes are persisted, so they must never be renumbered.
+public enum AppointmentStatus {
+    SCHEDULED(1, "Scheduled"),
+    COMPLETED(2, "Completed"),
+    CANCELLED(3, "Cancelled");
+
+    private final int code;
+    private final String label;
+
+    AppointmentStatus(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isTerminal() {
+        return this != SCHEDULED;
+    }
+
+    // Whether an appointment in this status may move to target; staying in the same status is not a transition
+    public boolean canTransitionTo(AppointmentStatus target) {
+        return this == SCHEDULED && target.isTerminal();
+    }
+
+    public static AppointmentStatus fromCode(int code) {
+        for (AppointmentStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown appointment status code " + code);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,88 @@
+package com.hospital.model;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+public class Doctor {
+    public static final LocalTime DEFAULT_WORK_START = LocalTime.of(9, 0);
+    public static final LocalTime DEFAULT_WORK_END = LocalTime.of(17, 0);
+
+    private int id;
+    private String name;
+    private String specialization;
+    private LocalTime workStart = DEFAULT_WORK_START;
+    private LocalTime workEnd = DEFAULT_WORK_END;
+
+    public Doctor() {}
+
+    public Doctor(String name, String specialization) {
+        this.name = name;
+        this.specialization = specialization;
+    }
+
+    public Doctor(String name, String specialization, LocalTime workStart, LocalTime workEnd) {
+        this.name = name;
+        this.specialization = specialization;
+        this.workStart = workStart;
+        this.workEnd = workEnd;
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSpecialization() {
+        return specialization;
+    }
+
+    public void setSpecialization(String specialization) {
+        this.specialization = specialization;
+    }
+
+    public LocalTime getWorkStart() {
+        return workStart;
+    }
+
+    public void setWorkStart(LocalTime workStart) {
+        this.workStart = workStart;
+    }
+
+    public LocalTime getWorkEnd() {
+        return workEnd;
+    }
+
+    public void setWorkEnd(LocalTime workEnd) {
+        this.workEnd = workEnd;
+    }
+
+    // True when [start, start + durationMinutes) falls inside this doctor's working hours on that day
+    public boolean isWorking(LocalDateTime start, int durationMinutes) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        return !start.toLocalTime().isBefore(workStart)
+                && !end.isAfter(start.toLocalDate().atTime(workEnd));
+    }
+
+    @Override
+    public String toString() {
+        return "Doctor{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", specialization='" + specialization + '\'' +
+                ", workStart=" + workStart +
+                ", workEnd=" + workEnd +
+                '}';
+    }
+}
@@ -1,14 +1,21 @@
 package com.hospital.model;
 
 import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class Patient {
+    // Fields a setter has touched since the patient was loaded or saved; PatientDAO.updatePatient writes only these
+    public enum Field {NAME, PHONE, EMAIL, DATE_OF_BIRTH, ADDRESS}
+
     private int id;
+    private int version;
     private String name;
     private String phone;
     private String email;
     private LocalDate dateOfBirth;
     private String address;
+    private final EnumSet<Field> changed = EnumSet.noneOf(Field.class);
 
     public Patient() {}
 
@@ -18,6 +25,18 @@ public class Patient {
         this.email = email;
         this.dateOfBirth = dateOfBirth;
         this.address = address;
+        this.changed.addAll(EnumSet.allOf(Field.class));
+    }
+
+    public Patient(Patient other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.phone = other.phone;
+        this.email = other.email;
+        this.dateOfBirth = other.dateOfBirth;
+        this.address = other.address;
+        this.version = other.version;
+        this.changed.addAll(other.changed);
     }
 
     // Getters and Setters
@@ -29,12 +48,22 @@ public class Patient {
         this.id = id;
     }
 
+    // Incremented by the database on every update; an update based on an older version is rejected
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
 
     public void setName(String name) {
         this.name = name;
+        changed.add(Field.NAME);
     }
 
     public String getPhone() {
@@ -43,6 +72,7 @@ public class Patient {
 
     public void setPhone(String phone) {
         this.phone = phone;
+        changed.add(Field.PHONE);
     }
 
     public String getEmail() {
@@ -51,6 +81,7 @@ public class Patient {
 
     public void setEmail(String email) {
         this.email = email;
+        changed.add(Field.EMAIL);
     }
 
     public LocalDate getDateOfBirth() {
@@ -59,6 +90,7 @@ public class Patient {
 
     public void setDateOfBirth(LocalDate dateOfBirth) {
         this.dateOfBirth = dateOfBirth;
+        changed.add(Field.DATE_OF_BIRTH);
     }
 
     public String getAddress() {
@@ -67,12 +99,22 @@ public class Patient {
 
     public void setAddress(String address) {
         this.address = address;
+        changed.add(Field.ADDRESS);
+    }
+
+    public Set<Field> getChangedFields() {
+        return EnumSet.copyOf(changed);
+    }
+
+    public void markUnchanged() {
+        changed.clear();
     }
 
     @Override
     public String toString() {
         return "Patient{" +
                 "id=" + id +
+                ", version=" + version +
                 ", name='" + name + '\'' +
                 ", phone='" + phone + '\'' +
                 ", email='" + email + '\'' +
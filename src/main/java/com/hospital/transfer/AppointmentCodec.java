@@ -0,0 +1,83 @@
+package com.hospital.transfer;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.BatchResult;
+import com.hospital.dao.DaoFactory;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Columns id, patient_id, doctor_id, appointment_time, duration_minutes, purpose, status. The id is exported but
+// ignored on import. Imported rows are inserted as they are, like createAppointments, without the overlap check
+// bookAppointment makes: this is for loading existing calendars, not for booking. A patient or doctor id that does
+// not exist is rejected by the database and reported against its record.
+final class AppointmentCodec extends RecordCodec<Appointment> {
+    private static final int ID = 0;
+    private static final int PATIENT_ID = 1;
+    private static final int DOCTOR_ID = 2;
+    private static final int APPOINTMENT_TIME = 3;
+    private static final int DURATION_MINUTES = 4;
+    private static final int PURPOSE = 5;
+    private static final int STATUS = 6;
+
+    private final AppointmentDAO appointmentDAO = DaoFactory.getAppointmentDAO();
+
+    AppointmentCodec() {
+        super(new String[]{"id", "patient_id", "doctor_id", "appointment_time", "duration_minutes", "purpose", "status"},
+                new boolean[]{true, true, true, false, true, false, false});
+    }
+
+    @Override
+    public Appointment parse(String[] values) {
+        Appointment appointment = new Appointment(positiveInt(values, PATIENT_ID), positiveInt(values, DOCTOR_ID),
+                dateTime(values, APPOINTMENT_TIME), optional(values, PURPOSE, Integer.MAX_VALUE));
+        if (optional(values, DURATION_MINUTES, 11) != null) {
+            int duration = positiveInt(values, DURATION_MINUTES);
+            if (duration > Appointment.MAX_DURATION_MINUTES) {
+                throw new IllegalArgumentException("duration_minutes is over " + Appointment.MAX_DURATION_MINUTES);
+            }
+            appointment.setDurationMinutes(duration);
+        }
+        String status = optional(values, STATUS, 20);
+        if (status != null) {
+            appointment.setStatus(status(status));
+        }
+        return appointment;
+    }
+
+    @Override
+    public String[] format(Appointment appointment) {
+        String[] values = new String[7];
+        values[ID] = Integer.toString(appointment.getId());
+        values[PATIENT_ID] = Integer.toString(appointment.getPatientId());
+        values[DOCTOR_ID] = Integer.toString(appointment.getDoctorId());
+        values[APPOINTMENT_TIME] = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(appointment.getAppointmentTime());
+        values[DURATION_MINUTES] = Integer.toString(appointment.getDurationMinutes());
+        values[PURPOSE] = appointment.getPurpose();
+        values[STATUS] = appointment.getStatus().getLabel();
+        return values;
+    }
+
+    @Override
+    BatchResult write(List<Appointment> appointments) {
+        return appointmentDAO.createAppointments(appointments);
+    }
+
+    @Override
+    boolean forEach(Consumer<Appointment> action) {
+        return appointmentDAO.forEachAppointment(action);
+    }
+
+    // By label as exported ("Scheduled") or by name ("SCHEDULED"), ignoring case
+    private static AppointmentStatus status(String value) {
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            if (status.getLabel().equalsIgnoreCase(value) || status.name().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("status must be Scheduled, Completed or Cancelled: " + value);
+    }
+}
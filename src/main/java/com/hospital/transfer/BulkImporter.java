@@ -0,0 +1,137 @@
+package com.hospital.transfer;
+
+import com.hospital.dao.BatchResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Three-stage import pipeline. The calling thread reads records into chunks of CHUNK_SIZE; PARSERS threads validate
+// and parse each chunk into models; WRITERS threads insert them through the DAO's batch method, which commits each
+// JDBC batch and reports bad rows individually. Chunks go through the stages independently, so records are not
+// written in file order.
+//
+// At most IN_FLIGHT_CHUNKS chunks are between reading and written at any time: the reader blocks for a permit
+// before reading on, so a fast file and a slow database do not pile records up in memory, and the heap stays
+// constant however large the file is.
+final class BulkImporter<T> {
+    static final int CHUNK_SIZE = Integer.getInteger("hospital.import.chunkSize", 1000);
+    static final int PARSERS = Integer.getInteger("hospital.import.parsers",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    // Each writer holds a pooled connection while it writes
+    static final int WRITERS = Integer.getInteger("hospital.import.writers", 2);
+    static final int IN_FLIGHT_CHUNKS = PARSERS + WRITERS * 2;
+
+    private final RecordCodec<T> codec;
+    private final ImportReport report = new ImportReport();
+    private final Semaphore inFlight = new Semaphore(IN_FLIGHT_CHUNKS);
+    private ExecutorService parsers;
+    private ExecutorService writers;
+
+    BulkImporter(RecordCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    ImportReport run(RecordReader reader) {
+        long start = System.nanoTime();
+        parsers = Executors.newFixedThreadPool(PARSERS, named("import-parser"));
+        writers = Executors.newFixedThreadPool(WRITERS, named("import-writer"));
+        try {
+            long next = 1;
+            boolean more = true;
+            while (more) {
+                List<String[]> rows = new ArrayList<>(CHUNK_SIZE);
+                try {
+                    String[] values;
+                    while (rows.size() < CHUNK_SIZE && (values = reader.next()) != null) {
+                        rows.add(values);
+                    }
+                    more = rows.size() == CHUNK_SIZE;
+                } catch (IOException | RuntimeException e) {
+                    report.abort("Stopped reading at record " + (next + rows.size()) + ": " + e.getMessage());
+                    more = false;
+                }
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                report.recordRead(rows.size());
+                long first = next;
+                next += rows.size();
+                inFlight.acquire();
+                parsers.execute(() -> parse(first, rows));
+            }
+            // Every permit back means every chunk has been written or rejected
+            inFlight.acquire(IN_FLIGHT_CHUNKS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.abort("Interrupted");
+        } finally {
+            parsers.shutdownNow();
+            writers.shutdownNow();
+            report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        }
+        return report;
+    }
+
+    // Holds the chunk's permit until the chunk is handed to a writer, or releases it if nothing is left to write
+    private void parse(long first, List<String[]> rows) {
+        boolean handedOff = false;
+        try {
+            List<T> items = new ArrayList<>(rows.size());
+            long[] records = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    records[items.size()] = first + i;
+                    items.add(codec.parse(rows.get(i)));
+                } catch (IllegalArgumentException e) {
+                    report.recordRejected(first + i, e.getMessage());
+                } catch (RuntimeException e) {
+                    report.recordRejected(first + i, String.valueOf(e));
+                }
+            }
+            if (!items.isEmpty()) {
+                writers.execute(() -> write(items, records));
+                handedOff = true;
+            }
+        } catch (RejectedExecutionException e) {
+            // The import was interrupted and the writers shut down; the report already says so
+        } finally {
+            if (!handedOff) {
+                inFlight.release();
+            }
+        }
+    }
+
+    // records[i] is the record number of items.get(i)
+    private void write(List<T> items, long[] records) {
+        try {
+            BatchResult result = codec.write(items);
+            report.recordImported(result.getSuccessCount());
+            for (BatchResult.Failure failure : result.getFailures()) {
+                report.recordRejected(records[failure.getIndex()], failure.getReason());
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < items.size(); i++) {
+                report.recordRejected(records[i], String.valueOf(e));
+            }
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static ThreadFactory named(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.hospital.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// RFC 4180 CSV: comma separated, fields optionally quoted with ", a quote inside a quoted field doubled, records
+// ending in LF or CRLF, and quoted fields free to span lines. The first record is the header. An empty unquoted
+// field reads as null, a quoted one ("") as the empty string. Blank lines are skipped.
+final class CsvRecordReader implements RecordReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> row = new ArrayList<>();
+    private final int columnCount;
+    // Header position -> column index, -1 for a header this import does not use
+    private final int[] positions;
+    private long line = 1;
+
+    CsvRecordReader(Reader in, String[] columns) throws IOException {
+        this.in = in;
+        this.columnCount = columns.length;
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            byName.put(columns[i], i);
+        }
+
+        List<String> header = readRow();
+        if (header == null) {
+            throw new IOException("The CSV file is empty; expected a header row");
+        }
+        positions = new int[header.size()];
+        boolean known = false;
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i) == null ? "" : header.get(i).trim().toLowerCase(Locale.ROOT);
+            positions[i] = byName.getOrDefault(name, -1);
+            known |= positions[i] >= 0;
+        }
+        if (!known) {
+            throw new IOException("The CSV header has none of the columns " + Arrays.toString(columns));
+        }
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        List<String> values = readRow();
+        if (values == null) {
+            return null;
+        }
+        String[] record = new String[columnCount];
+        for (int i = 0; i < values.size() && i < positions.length; i++) {
+            if (positions[i] >= 0) {
+                record[positions[i]] = values.get(i);
+            }
+        }
+        return record;
+    }
+
+    // The next non-blank row's fields, or null at the end of the input. The list is reused by the next call.
+    private List<String> readRow() throws IOException {
+        while (true) {
+            long start = line;
+            row.clear();
+            field.setLength(0);
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+
+            boolean quoted = false;
+            boolean inQuotes = false;
+            while (true) {
+                if (inQuotes) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field starting on line " + start);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            inQuotes = false;
+                            continue;
+                        }
+                    }
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.length() == 0 && !quoted) {
+                    inQuotes = true;
+                    quoted = true;
+                } else if (c == ',') {
+                    row.add(value(quoted));
+                    quoted = false;
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    row.add(value(quoted));
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+
+            if (row.size() > 1 || row.get(0) != null) {
+                return row;
+            }
+        }
+    }
+
+    private String value(boolean quoted) {
+        String value = field.length() == 0 && !quoted ? null : field.toString();
+        field.setLength(0);
+        return value;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,63 @@
+package com.hospital.transfer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Writes the header, then one line per record. Fields are quoted only when they need it, so CsvRecordReader reads
+// back exactly what was written: null as an empty field and the empty string as "".
+final class CsvRecordWriter implements RecordWriter {
+    private final Writer out;
+
+    CsvRecordWriter(Writer out, String[] columns) throws IOException {
+        this.out = out;
+        write(columns);
+    }
+
+    @Override
+    public void write(String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeField(values[i]);
+        }
+        out.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        int from = 0;
+        for (int i = value.indexOf('"'); i >= 0; i = value.indexOf('"', from)) {
+            out.write(value, from, i + 1 - from);
+            out.write('"');
+            from = i + 1;
+        }
+        out.write(value, from, value.length() - from);
+        out.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
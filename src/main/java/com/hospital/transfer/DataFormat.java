@@ -0,0 +1,50 @@
+package com.hospital.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// File formats for bulk import and export. CSV has a header row naming the columns; JSON is one top-level array of
+// objects keyed by the same column names. Either way unknown columns are ignored and missing ones are left empty.
+public enum DataFormat {
+    CSV {
+        @Override
+        RecordReader reader(Reader in, String[] columns) throws IOException {
+            return new CsvRecordReader(in, columns);
+        }
+
+        @Override
+        RecordWriter writer(Writer out, String[] columns, boolean[] numeric) throws IOException {
+            return new CsvRecordWriter(out, columns);
+        }
+    },
+    JSON {
+        @Override
+        RecordReader reader(Reader in, String[] columns) throws IOException {
+            return new JsonRecordReader(in, columns);
+        }
+
+        @Override
+        RecordWriter writer(Writer out, String[] columns, boolean[] numeric) throws IOException {
+            return new JsonRecordWriter(out, columns, numeric);
+        }
+    };
+
+    abstract RecordReader reader(Reader in, String[] columns) throws IOException;
+
+    abstract RecordWriter writer(Writer out, String[] columns, boolean[] numeric) throws IOException;
+
+    // From the file extension: .csv or .json
+    public static DataFormat fromFileName(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".json")) {
+            return JSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + file + "; expected a .csv or .json file");
+    }
+}
@@ -0,0 +1,111 @@
+package com.hospital.transfer;
+
+import com.hospital.model.Appointment;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Bulk import and export of patients and appointments as CSV or JSON. Both directions stream: an import reads the
+// file a chunk at a time through BulkImporter, and an export writes rows as they come off a server-side cursor, so
+// neither holds a table or a file in memory. From the command line these are Main's import and export commands.
+public final class DataTransfer {
+    private DataTransfer() {
+    }
+
+    public static ImportReport importFile(Dataset dataset, Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(dataset, DataFormat.fromFileName(file), in);
+        }
+    }
+
+    // Records that fail validation or are refused by the database are rejected one by one and the rest imported.
+    // An IOException means the input could not be opened or its header read; input that turns malformed further on
+    // ends the import there, which the report's abort reason describes.
+    public static ImportReport importFrom(Dataset dataset, DataFormat format, Reader in) throws IOException {
+        return importFrom(dataset.codec(), format, in);
+    }
+
+    private static <T> ImportReport importFrom(RecordCodec<T> codec, DataFormat format, Reader in) throws IOException {
+        return new BulkImporter<>(codec).run(format.reader(in, codec.columns()));
+    }
+
+    public interface RecordHandler<T> {
+        void accept(long record, T item);
+
+        void reject(long record, String reason);
+    }
+
+    // Validates and parses an appointments file one record at a time, on the calling thread and in file order,
+    // without writing anything; for callers that handle each record themselves, such as booking them one by one
+    // with the conflict check a bulk import skips. Malformed input throws once the records before it are handled.
+    public static void readAppointments(DataFormat format, Reader in, RecordHandler<Appointment> handler)
+            throws IOException {
+        AppointmentCodec codec = new AppointmentCodec();
+        RecordReader reader = format.reader(in, codec.columns());
+        long record = 0;
+        String[] values;
+        while ((values = reader.next()) != null) {
+            record++;
+            Appointment appointment;
+            try {
+                appointment = codec.parse(values);
+            } catch (IllegalArgumentException e) {
+                handler.reject(record, e.getMessage());
+                continue;
+            }
+            handler.accept(record, appointment);
+        }
+    }
+
+    // Writes to a temporary file next to file and moves it into place once complete, so a failed export (including
+    // the database cursor failing part way) never leaves half a file behind. Returns the number of records written.
+    public static long exportFile(Dataset dataset, Path file) throws IOException {
+        DataFormat format = DataFormat.fromFileName(file);
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        long count;
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            count = exportTo(dataset, format, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    // out should be buffered; it is flushed but not closed. Throws if the table could not be read to the end, by
+    // which time out may already hold part of it.
+    public static long exportTo(Dataset dataset, DataFormat format, Writer out) throws IOException {
+        return exportTo(dataset.codec(), format, out);
+    }
+
+    private static <T> long exportTo(RecordCodec<T> codec, DataFormat format, Writer out) throws IOException {
+        RecordWriter writer = format.writer(out, codec.columns(), codec.numeric());
+        long[] count = {0};
+        boolean complete;
+        try {
+            complete = codec.forEach(item -> {
+                try {
+                    writer.write(codec.format(item));
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (!complete) {
+            throw new IOException("Reading from the database failed after " + count[0] + " records");
+        }
+        writer.finish();
+        return count[0];
+    }
+}
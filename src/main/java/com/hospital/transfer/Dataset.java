@@ -0,0 +1,29 @@
+package com.hospital.transfer;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+// The tables that can be imported and exported
+public enum Dataset {
+    PATIENTS(PatientCodec::new),
+    APPOINTMENTS(AppointmentCodec::new);
+
+    private final Supplier<RecordCodec<?>> codec;
+
+    Dataset(Supplier<RecordCodec<?>> codec) {
+        this.codec = codec;
+    }
+
+    RecordCodec<?> codec() {
+        return codec.get();
+    }
+
+    // "patients" or "appointments", ignoring case
+    public static Dataset fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown dataset " + name + "; expected patients or appointments");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.hospital.transfer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Outcome of one import. Records are numbered from 1 in file order, not counting a CSV header. Every rejected record
+// is counted but only the first MAX_KEPT are kept with their reason, so a bad file cannot fill the heap.
+public class ImportReport {
+    static final int MAX_KEPT = 100;
+
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<Rejection> rejections = new ArrayList<>();
+    private volatile String abortReason;
+    private long elapsedMillis;
+
+    void recordRead(int count) {
+        read.addAndGet(count);
+    }
+
+    void recordImported(int count) {
+        imported.addAndGet(count);
+    }
+
+    void recordRejected(long record, String reason) {
+        rejected.incrementAndGet();
+        synchronized (rejections) {
+            if (rejections.size() < MAX_KEPT) {
+                rejections.add(new Rejection(record, reason));
+            }
+        }
+    }
+
+    // Reading stopped early, e.g. on malformed input; the records before it were still imported
+    void abort(String reason) {
+        abortReason = reason;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRead() {
+        return read.get();
+    }
+
+    public long getImported() {
+        return imported.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    // Up to MAX_KEPT rejections by record number. Chunks are checked in parallel, so these are the first found, which
+    // is roughly but not exactly the first in the file
+    public List<Rejection> getRejections() {
+        synchronized (rejections) {
+            List<Rejection> sorted = new ArrayList<>(rejections);
+            sorted.sort((a, b) -> Long.compare(a.record, b.record));
+            return Collections.unmodifiableList(sorted);
+        }
+    }
+
+    public boolean isComplete() {
+        return abortReason == null;
+    }
+
+    public String getAbortReason() {
+        return abortReason;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{read=" + getRead() + ", imported=" + getImported() + ", rejected=" + getRejected() +
+                (abortReason == null ? "" : ", aborted='" + abortReason + '\'') + ", elapsedMillis=" + elapsedMillis + '}';
+    }
+
+    public static class Rejection {
+        private final long record;
+        private final String reason;
+
+        Rejection(long record, String reason) {
+            this.record = record;
+            this.reason = reason;
+        }
+
+        public long getRecord() {
+            return record;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "record " + record + ": " + reason;
+        }
+    }
+}
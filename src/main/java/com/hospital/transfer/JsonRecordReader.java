@@ -0,0 +1,69 @@
+package com.hospital.transfer;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Pulls one object at a time out of a top-level JSON array with Gson's streaming JsonReader, so the document is
+// never parsed as a whole. Strings, numbers and booleans are read as text; nested objects and arrays are an error.
+final class JsonRecordReader implements RecordReader {
+    private final JsonReader reader;
+    private final int columnCount;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private boolean done;
+
+    JsonRecordReader(Reader in, String[] columns) throws IOException {
+        this.reader = new JsonReader(in);
+        this.columnCount = columns.length;
+        for (int i = 0; i < columns.length; i++) {
+            positions.put(columns[i], i);
+        }
+        expect(JsonToken.BEGIN_ARRAY);
+        reader.beginArray();
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        if (done) {
+            return null;
+        }
+        if (!reader.hasNext()) {
+            reader.endArray();
+            done = true;
+            return null;
+        }
+
+        String[] record = new String[columnCount];
+        expect(JsonToken.BEGIN_OBJECT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            Integer position = positions.get(reader.nextName().toLowerCase(Locale.ROOT));
+            JsonToken token = reader.peek();
+            if (position == null) {
+                reader.skipValue();
+            } else if (token == JsonToken.NULL) {
+                reader.nextNull();
+            } else if (token == JsonToken.BOOLEAN) {
+                record[position] = String.valueOf(reader.nextBoolean());
+            } else if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                record[position] = reader.nextString();
+            } else {
+                throw new IOException("Expected a value but found " + token + " at " + reader.getPath());
+            }
+        }
+        reader.endObject();
+        return record;
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken token = reader.peek();
+        if (token != expected) {
+            throw new IOException("Expected " + expected + " but found " + token + " at " + reader.getPath());
+        }
+    }
+}
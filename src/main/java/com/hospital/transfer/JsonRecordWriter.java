@@ -0,0 +1,43 @@
+package com.hospital.transfer;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Streams records into a top-level JSON array with Gson's JsonWriter, one object per record. Numeric columns are
+// written as JSON numbers, everything else as strings.
+final class JsonRecordWriter implements RecordWriter {
+    private final JsonWriter writer;
+    private final String[] columns;
+    private final boolean[] numeric;
+
+    JsonRecordWriter(Writer out, String[] columns, boolean[] numeric) throws IOException {
+        this.writer = new JsonWriter(out);
+        this.columns = columns;
+        this.numeric = numeric;
+        writer.beginArray();
+    }
+
+    @Override
+    public void write(String[] values) throws IOException {
+        writer.beginObject();
+        for (int i = 0; i < columns.length; i++) {
+            writer.name(columns[i]);
+            if (values[i] == null) {
+                writer.nullValue();
+            } else if (numeric[i]) {
+                writer.jsonValue(values[i]);
+            } else {
+                writer.value(values[i]);
+            }
+        }
+        writer.endObject();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.endArray();
+        writer.flush();
+    }
+}
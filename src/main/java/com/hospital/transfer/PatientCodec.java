@@ -0,0 +1,64 @@
+package com.hospital.transfer;
+
+import com.hospital.dao.BatchResult;
+import com.hospital.dao.DaoFactory;
+import com.hospital.dao.PatientDAO;
+import com.hospital.model.Patient;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Columns id, name, phone, email, date_of_birth, address. The id is exported but ignored on import: imported
+// patients get new ids. Lengths follow the patients table, so a bad row is rejected before it reaches a batch.
+final class PatientCodec extends RecordCodec<Patient> {
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int PHONE = 2;
+    private static final int EMAIL = 3;
+    private static final int DATE_OF_BIRTH = 4;
+    private static final int ADDRESS = 5;
+
+    private final PatientDAO patientDAO = DaoFactory.getPatientDAO();
+
+    PatientCodec() {
+        super(new String[]{"id", "name", "phone", "email", "date_of_birth", "address"},
+                new boolean[]{true, false, false, false, false, false});
+    }
+
+    @Override
+    public Patient parse(String[] values) {
+        String email = optional(values, EMAIL, 100);
+        if (email != null && email.indexOf('@') < 1) {
+            throw new IllegalArgumentException("email is not an email address: " + email);
+        }
+        LocalDate dateOfBirth = date(values, DATE_OF_BIRTH);
+        if (dateOfBirth.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("date_of_birth is in the future: " + dateOfBirth);
+        }
+        return new Patient(required(values, NAME, 100), required(values, PHONE, 20), email, dateOfBirth,
+                optional(values, ADDRESS, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public String[] format(Patient patient) {
+        String[] values = new String[6];
+        values[ID] = Integer.toString(patient.getId());
+        values[NAME] = patient.getName();
+        values[PHONE] = patient.getPhone();
+        values[EMAIL] = patient.getEmail();
+        values[DATE_OF_BIRTH] = patient.getDateOfBirth().toString();
+        values[ADDRESS] = patient.getAddress();
+        return values;
+    }
+
+    @Override
+    BatchResult write(List<Patient> patients) {
+        return patientDAO.createPatients(patients);
+    }
+
+    @Override
+    boolean forEach(Consumer<Patient> action) {
+        return patientDAO.forEachPatient(action);
+    }
+}
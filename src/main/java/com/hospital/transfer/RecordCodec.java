@@ -0,0 +1,113 @@
+package com.hospital.transfer;
+
+import com.hospital.dao.BatchResult;
+import com.hospital.model.Appointment;
+import com.hospital.model.Patient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Consumer;
+
+// How one table maps to import/export records: its columns, how a record is validated and parsed into a model,
+// how a model is formatted back, and which DAO calls read and write it. parse runs on the importer's parser threads
+// and must not touch shared state. The HTTP API reads and writes request bodies through the same codecs, so a
+// record is validated the same way and has the same field names whichever way it arrives.
+public abstract class RecordCodec<T> {
+    // Dates export as 2024-05-01 and times as 2024-05-01T09:30:00 (ISO); on import a space may stand in for the T
+    // and the seconds may be left out
+    private static final DateTimeFormatter DATE_TIME_INPUT = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .toFormatter();
+
+    private final String[] columns;
+    private final boolean[] numeric;
+
+    RecordCodec(String[] columns, boolean[] numeric) {
+        this.columns = columns;
+        this.numeric = numeric;
+    }
+
+    public static RecordCodec<Patient> patients() {
+        return new PatientCodec();
+    }
+
+    public static RecordCodec<Appointment> appointments() {
+        return new AppointmentCodec();
+    }
+
+    public String[] columns() {
+        return columns;
+    }
+
+    public boolean[] numeric() {
+        return numeric;
+    }
+
+    // Throws IllegalArgumentException naming the offending column when the record is not valid
+    public abstract T parse(String[] values);
+
+    public abstract String[] format(T item);
+
+    abstract BatchResult write(List<T> items);
+
+    // False if the table could not be read to the end
+    abstract boolean forEach(Consumer<T> action);
+
+    String required(String[] values, int column, int maxLength) {
+        String value = optional(values, column, maxLength);
+        if (value == null) {
+            throw new IllegalArgumentException(columns[column] + " is required");
+        }
+        return value;
+    }
+
+    // Trimmed value, or null when blank
+    String optional(String[] values, int column, int maxLength) {
+        String value = values[column] == null ? null : values[column].trim();
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(columns[column] + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    int positiveInt(String[] values, int column) {
+        String value = required(values, column, 11);
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(columns[column] + " must be a positive whole number: " + value);
+    }
+
+    LocalDate date(String[] values, int column) {
+        String value = required(values, column, 10);
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(columns[column] + " must be a date as YYYY-MM-DD: " + value);
+        }
+    }
+
+    LocalDateTime dateTime(String[] values, int column) {
+        String value = required(values, column, 29);
+        try {
+            return LocalDateTime.parse(value, DATE_TIME_INPUT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(columns[column] + " must be a date and time as YYYY-MM-DDTHH:MM: " + value);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.hospital.transfer;
+
+import java.io.IOException;
+
+// Reads one record at a time from an import file, so the file is never held in memory
+interface RecordReader {
+    // The next record's values in the order of the columns the reader was created with, null where a column is
+    // absent; null once the input is exhausted. An IOException means the file itself is malformed.
+    String[] next() throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.hospital.transfer;
+
+import java.io.IOException;
+
+// Writes records to an export file as they are streamed out of the database
+interface RecordWriter {
+    // values are in column order; null writes an empty CSV field or a JSON null
+    void write(String[] values) throws IOException;
+
+    // Ends the document; the underlying writer is flushed but left open
+    void finish() throws IOException;
+}
@@ -0,0 +1,435 @@
+package com.hospital.util;
+
+import com.hospital.metrics.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConnectionPool {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutNanos;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final long validationIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    // Most recently returned connections sit at the head so hot connections are reused first
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private int total;
+    private int waiters;
+    private boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong totalBorrowNanos = new AtomicLong();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    private final ScheduledExecutorService housekeeper;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          long validationIntervalMillis, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.validationTimeoutSeconds = 5;
+        this.statementCacheSize = statementCacheSize;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 1, 30, TimeUnit.SECONDS);
+    }
+
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        while (true) {
+            PooledConnection candidate;
+            lock.lock();
+            try {
+                long remaining = borrowTimeoutNanos - (System.nanoTime() - start);
+                while (!closed && idle.isEmpty() && total >= maxSize) {
+                    if (remaining <= 0) {
+                        borrowTimeouts.incrementAndGet();
+                        throw new SQLTimeoutException("Timed out waiting for a database connection after "
+                                + TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos) + " ms (" + describe() + ")");
+                    }
+                    waiters++;
+                    try {
+                        remaining = available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waiters--;
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                candidate = idle.pollFirst();
+                if (candidate == null) {
+                    total++;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (candidate == null) {
+                candidate = openConnection();
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+            return lease(candidate, start);
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        try {
+            return new PooledConnection(DriverManager.getConnection(url, user, password), statementCacheSize);
+        } catch (SQLException | RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        // A connection returned moments ago is almost certainly alive; skip the round trip
+        if (System.currentTimeMillis() - pc.lastUsed < validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return pc.raw.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lease(PooledConnection pc, long borrowStart) {
+        pc.borrowedAt = System.currentTimeMillis();
+        pc.leakReported = false;
+        pc.borrowTrace = leakThresholdMillis > 0 ? new Exception("Connection borrowed here") : null;
+        inUse.add(pc);
+
+        long elapsed = System.nanoTime() - borrowStart;
+        borrowCount.incrementAndGet();
+        totalBorrowNanos.addAndGet(elapsed);
+        maxBorrowNanos.accumulateAndGet(elapsed, Math::max);
+        Metrics.recordPoolWait(elapsed);
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Lease(pc));
+    }
+
+    private void release(PooledConnection pc, boolean sessionChanged) {
+        inUse.remove(pc);
+        pc.borrowTrace = null;
+        if (sessionChanged && !resetSession(pc)) {
+            discard(pc);
+            return;
+        }
+        pc.lastUsed = System.currentTimeMillis();
+
+        boolean closeNow = false;
+        lock.lock();
+        try {
+            if (closed) {
+                total--;
+                closeNow = true;
+            } else {
+                idle.addFirst(pc);
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (closeNow) {
+            closeQuietly(pc);
+        }
+    }
+
+    private boolean resetSession(PooledConnection pc) {
+        try {
+            if (!pc.raw.getAutoCommit()) {
+                pc.raw.rollback();
+                pc.raw.setAutoCommit(true);
+            }
+            if (pc.raw.getTransactionIsolation() != pc.defaultIsolation) {
+                pc.raw.setTransactionIsolation(pc.defaultIsolation);
+            }
+            if (pc.raw.isReadOnly()) {
+                pc.raw.setReadOnly(false);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        inUse.remove(pc);
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(pc);
+    }
+
+    private void closeQuietly(PooledConnection pc) {
+        try {
+            pc.raw.close();
+        } catch (SQLException e) {
+            // Nothing useful to do with a connection that is being thrown away
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            detectLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictIdle() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            // Oldest idle connections are at the tail
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && total > minSize) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastUsed < idleTimeoutMillis) {
+                    break;
+                }
+                it.remove();
+                total--;
+                evicted.add(pc);
+            }
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(this::closeQuietly);
+    }
+
+    private void detectLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pc : inUse) {
+            Exception trace = pc.borrowTrace;
+            if (!pc.leakReported && trace != null && now - pc.borrowedAt > leakThresholdMillis) {
+                pc.leakReported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for " + (now - pc.borrowedAt) + " ms");
+                trace.printStackTrace();
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || total >= minSize) {
+                    return;
+                }
+                total++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection pc;
+            try {
+                pc = openConnection();
+            } catch (SQLException e) {
+                // Database unavailable; borrowers will surface the error
+                return;
+            }
+            release(pc, false);
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(total - idle.size(), idle.size(), waiters, maxSize, borrowCount.get(),
+                    borrowTimeouts.get(), leaksDetected.get(), totalBorrowNanos.get(), maxBorrowNanos.get(),
+                    statementCacheHits.get(), statementCacheMisses.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String describe() {
+        return "active=" + (total - idle.size()) + ", idle=" + idle.size() + ", waiters=" + waiters + ", max=" + maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        toClose.forEach(this::closeQuietly);
+    }
+
+    private final class PooledConnection {
+        final Connection raw;
+        final StatementCache statements;
+        final int defaultIsolation;
+        volatile long lastUsed;
+        volatile long borrowedAt;
+        volatile boolean leakReported;
+        volatile Exception borrowTrace;
+
+        PooledConnection(Connection raw, int statementCacheSize) throws SQLException {
+            this.raw = raw;
+            this.statements = new StatementCache(raw, statementCacheSize, statementCacheHits, statementCacheMisses);
+            this.defaultIsolation = raw.getTransactionIsolation();
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    // One lease per borrow, so a stale reference kept by a previous borrower cannot touch the next one's session
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean returned;
+        private boolean sessionChanged;
+
+        Lease(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pc, sessionChanged);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pc.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.raw + (returned ? ", returned]" : "]");
+                case "prepareStatement":
+                    if (!returned && isCacheable(method)) {
+                        int keys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                        return Metrics.instrument(pc.statements.prepare((Connection) proxy, (String) args[0], keys),
+                                PreparedStatement.class, (String) args[0]);
+                    }
+                    break;
+                case "setAutoCommit":
+                case "setTransactionIsolation":
+                case "setReadOnly":
+                    sessionChanged = true;
+                    break;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object result;
+            try {
+                result = method.invoke(pc.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return Metrics.ENABLED ? instrumented(result, method, args) : result;
+        }
+
+        // Statements from prepareStatement variants that are not cached, prepareCall and createStatement
+        @SuppressWarnings("unchecked")
+        private Object instrumented(Object result, Method method, Object[] args) {
+            if (!(result instanceof Statement statement)) {
+                return result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return Metrics.instrument(statement, (Class<Statement>) method.getReturnType(), sql);
+        }
+
+        // Only prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys) are cached
+        private boolean isCacheable(Method method) {
+            Class<?>[] params = method.getParameterTypes();
+            return params.length == 1 || (params.length == 2 && params[1] == int.class);
+        }
+    }
+}
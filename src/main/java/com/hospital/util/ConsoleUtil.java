@@ -22,7 +22,9 @@ public class ConsoleUtil {
         System.out.println("5. View Appointments by Doctor");
         System.out.println("6. View Appointments by Date");
         System.out.println("7. Cancel Appointment");
-        System.out.println("8. Exit");
+        System.out.println("8. Find Available Doctors");
+        System.out.println("9. Search Patients");
+        System.out.println("10. Exit");
         System.out.print("\nEnter your choice: ");
     }
 
@@ -1,47 +1,102 @@
 package com.hospital.util;
 
+import com.hospital.metrics.Metrics;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.function.ToDoubleFunction;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/hospital_db?useSSL=false&serverTimezone=UTC";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
-    
-    private static Connection connection = null;
-    
+    private static final StorageBackend BACKEND = StorageBackend.fromConfig();
+    private static final String URL = System.getProperty("hospital.db.url", BACKEND.getDefaultUrl());
+    private static final String USER = System.getProperty("hospital.db.user", BACKEND.getDefaultUser());
+    private static final String PASSWORD = System.getProperty("hospital.db.password", "");
+
+    // Pool sizing, overridable with -Dhospital.pool.<setting>=<value>
+    private static final int POOL_MIN_SIZE = Integer.getInteger("hospital.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("hospital.pool.maxSize", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("hospital.pool.borrowTimeoutMs", 30_000L);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("hospital.pool.idleTimeoutMs", 600_000L);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("hospital.pool.leakThresholdMs", 60_000L);
+    private static final long VALIDATION_INTERVAL_MS = Long.getLong("hospital.pool.validationIntervalMs", 500L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("hospital.pool.statementCacheSize", 64);
+
+    private static volatile ConnectionPool pool = null;
+
     static {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
+            Class.forName(BACKEND.getDriverClass());
         } catch (ClassNotFoundException e) {
-            System.err.println("MySQL JDBC Driver not found!");
+            System.err.println(BACKEND + " JDBC Driver not found!");
             e.printStackTrace();
         }
+        registerPoolGauges();
     }
-    
-    public static Connection getConnection() {
-        if (connection == null) {
-            try {
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("Connected to the database successfully!");
-            } catch (SQLException e) {
-                System.err.println("Connection failed!");
-                e.printStackTrace();
+
+    // Inside TransactionManager.inTransaction this is the block's connection; closing it does not end the transaction
+    public static Connection getConnection() throws SQLException {
+        Connection joined = TransactionManager.currentConnection();
+        return joined != null ? joined : getPool().borrow();
+    }
+
+    public static StorageBackend getBackend() {
+        return BACKEND;
+    }
+
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(URL, USER, PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                            BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS, VALIDATION_INTERVAL_MS,
+                            STATEMENT_CACHE_SIZE);
+                    pool = current;
+                }
             }
         }
-        return connection;
+        return current;
     }
-    
+
+    public static PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    private static void registerPoolGauges() {
+        Metrics.registerGauge("hospital_pool_active_connections", "Connections currently borrowed.", false,
+                () -> poolStat(PoolStats::getActive));
+        Metrics.registerGauge("hospital_pool_idle_connections", "Open connections waiting in the pool.", false,
+                () -> poolStat(PoolStats::getIdle));
+        Metrics.registerGauge("hospital_pool_waiting_threads", "Threads waiting for a connection.", false,
+                () -> poolStat(PoolStats::getWaiters));
+        Metrics.registerGauge("hospital_pool_max_connections", "Pool size limit.", false,
+                () -> poolStat(PoolStats::getMaxSize));
+        Metrics.registerGauge("hospital_pool_borrow_timeouts_total", "Borrows that gave up waiting.", true,
+                () -> poolStat(PoolStats::getBorrowTimeouts));
+        Metrics.registerGauge("hospital_pool_leaks_total", "Connections held past the leak threshold.", true,
+                () -> poolStat(PoolStats::getLeaksDetected));
+        Metrics.registerGauge("hospital_statement_cache_hits_total", "Prepared statements reused from the cache.", true,
+                () -> poolStat(PoolStats::getStatementCacheHits));
+        Metrics.registerGauge("hospital_statement_cache_misses_total", "Prepared statements created.", true,
+                () -> poolStat(PoolStats::getStatementCacheMisses));
+    }
+
+    // 0 while no pool is open
+    private static double poolStat(ToDoubleFunction<PoolStats> stat) {
+        ConnectionPool current = pool;
+        return current == null ? 0 : stat.applyAsDouble(current.getStats());
+    }
+
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                System.out.println("Database connection closed.");
-            } catch (SQLException e) {
-                System.err.println("Error while closing the connection!");
-                e.printStackTrace();
-            }
+        ConnectionPool current;
+        synchronized (DatabaseConnection.class) {
+            current = pool;
+            pool = null;
+        }
+        if (current != null) {
+            current.close();
+            System.err.println("Database connection pool closed.");
         }
     }
 }
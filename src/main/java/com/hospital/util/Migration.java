@@ -0,0 +1,14 @@
+package com.hospital.util;
+
+import java.sql.SQLException;
+
+// One numbered step of schema evolution. MigrationRunner applies pending steps in ascending version order and records
+// each in schema_version once it completes. MySQL commits DDL implicitly, so a step that dies half way is re-run from
+// the top on the next start: every step must be safe to repeat (check before adding or dropping anything).
+public record Migration(int version, String description, Step step) {
+
+    @FunctionalInterface
+    public interface Step {
+        void apply(MigrationContext ctx) throws SQLException;
+    }
+}
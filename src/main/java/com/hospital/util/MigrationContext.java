@@ -0,0 +1,240 @@
+package com.hospital.util;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+// What a migration step works with: one auto-commit connection plus helpers that pick the least disruptive way to
+// change a table on the current backend. On MySQL an ALTER is first tried as INSTANT (metadata only), then INPLACE
+// with LOCK=NONE (rebuilt while reads and writes continue), and only then with the server's default, which may copy
+// the table. H2 has no online DDL, and its tables are small enough not to need it.
+public class MigrationContext {
+    public static final int CHUNK_SIZE = Integer.getInteger("hospital.migration.chunkSize", 1000);
+    // Pause between backfill chunks so replication and foreground queries keep up
+    public static final long CHUNK_PAUSE_MILLIS = Long.getLong("hospital.migration.pauseMillis", 10);
+
+    private static final String[] MYSQL_ALGORITHMS = {", ALGORITHM=INSTANT", ", ALGORITHM=INPLACE, LOCK=NONE", ""};
+    // ER_PARSE_ERROR (servers without INSTANT), ER_ALTER_OPERATION_NOT_SUPPORTED and ..._REASON
+    private static final int[] ALGORITHM_REJECTED = {1064, 1845, 1846};
+
+    private final Connection conn;
+    private final Statement stmt;
+    private final boolean mysql;
+
+    MigrationContext(Connection conn, Statement stmt) {
+        this.conn = conn;
+        this.stmt = stmt;
+        this.mysql = DatabaseConnection.getBackend() == StorageBackend.MYSQL;
+    }
+
+    public Connection getConnection() {
+        return conn;
+    }
+
+    public void execute(String sql) throws SQLException {
+        stmt.execute(sql);
+    }
+
+    public int queryInt(String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // ALTER TABLE table <clause>, using the cheapest algorithm MySQL accepts for it
+    public void alter(String table, String clause) throws SQLException {
+        String sql = "ALTER TABLE " + table + " " + clause;
+        if (!mysql) {
+            stmt.execute(sql);
+            return;
+        }
+        for (int i = 0; i < MYSQL_ALGORITHMS.length; i++) {
+            try {
+                stmt.execute(sql + MYSQL_ALGORITHMS[i]);
+                return;
+            } catch (SQLException e) {
+                if (i == MYSQL_ALGORITHMS.length - 1 || !algorithmRejected(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public void addColumnIfMissing(String table, String column, String definition) throws SQLException {
+        if (!columnExists(table, column)) {
+            alter(table, "ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    public void dropColumnIfExists(String table, String column) throws SQLException {
+        if (columnExists(table, column)) {
+            alter(table, "DROP COLUMN " + column);
+        }
+    }
+
+    public void createIndexIfMissing(String table, String index, String columns) throws SQLException {
+        if (indexExists(table, index)) {
+            return;
+        }
+        if (mysql) {
+            alter(table, "ADD INDEX " + index + " (" + columns + ")");
+        } else {
+            stmt.execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    public void dropIndexIfExists(String table, String index) throws SQLException {
+        if (!indexExists(table, index)) {
+            return;
+        }
+        if (mysql) {
+            alter(table, "DROP INDEX " + index);
+        } else {
+            stmt.execute("DROP INDEX " + index + " ON " + table);
+        }
+    }
+
+    // Runs updateSql, whose two parameters are an exclusive lower and inclusive upper id bound, over the table's
+    // id range in CHUNK_SIZE steps. Each chunk commits on its own, so no statement holds row locks on more than
+    // CHUNK_SIZE rows, and the pause between chunks leaves room for the live workload. Returns the rows updated.
+    public long backfill(String table, String updateSql) throws SQLException {
+        int minId;
+        int maxId;
+        try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MIN(id), 1), COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            minId = rs.getInt(1);
+            maxId = rs.getInt(2);
+        }
+        long updated = 0;
+        try (PreparedStatement update = conn.prepareStatement(updateSql)) {
+            for (long from = minId - 1L; from < maxId; from += CHUNK_SIZE) {
+                update.setLong(1, from);
+                update.setLong(2, Math.min(from + CHUNK_SIZE, maxId));
+                updated += update.executeUpdate();
+                pause();
+            }
+        }
+        return updated;
+    }
+
+    public boolean tableExists(String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        // Identifier case differs between databases, so try both spellings
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getTables(conn.getCatalog(), null, name, null)) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean columnExists(String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, names[0], names[1])) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // The column's java.sql.Types code, or Types.NULL when it does not exist
+    public int columnType(String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, names[0], names[1])) {
+                if (rs.next()) {
+                    return rs.getInt("DATA_TYPE");
+                }
+            }
+        }
+        return Types.NULL;
+    }
+
+    public boolean columnNullable(String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, names[0], names[1])) {
+                if (rs.next()) {
+                    return rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean foreignKeyExists(String table, String constraint) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getImportedKeys(conn.getCatalog(), null, name)) {
+                while (rs.next()) {
+                    if (constraint.equalsIgnoreCase(rs.getString("FK_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Any named constraint, CHECK constraints included, which the metadata API does not list
+    public boolean constraintExists(String table, String constraint) throws SQLException {
+        try (PreparedStatement query = conn.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS"
+                + " WHERE TABLE_SCHEMA = ? AND UPPER(TABLE_NAME) = UPPER(?) AND UPPER(CONSTRAINT_NAME) = UPPER(?)")) {
+            // MySQL reports the database as the schema, H2 its own schema
+            query.setString(1, mysql ? conn.getCatalog() : conn.getSchema());
+            query.setString(2, table);
+            query.setString(3, constraint);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    public boolean indexExists(String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, name, false, false)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    boolean isMysql() {
+        return mysql;
+    }
+
+    private static boolean algorithmRejected(SQLException e) {
+        for (int code : ALGORITHM_REJECTED) {
+            if (e.getErrorCode() == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void pause() throws SQLException {
+        if (CHUNK_PAUSE_MILLIS <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(CHUNK_PAUSE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Backfill interrupted", e);
+        }
+    }
+}
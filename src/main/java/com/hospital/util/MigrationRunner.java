@@ -0,0 +1,119 @@
+package com.hospital.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Brings the database up to the newest Migration. Applied versions are recorded in schema_version; when the
+// recorded version is already the newest, startup costs one metadata lookup and one query and issues no DDL.
+// On MySQL a named lock keeps two instances starting together from applying the same step twice.
+public class MigrationRunner {
+    private static final String LOCK_NAME = "hospital_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = Integer.getInteger("hospital.migration.lockTimeoutSeconds", 300);
+
+    private final List<Migration> migrations;
+
+    public MigrationRunner(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).version() <= 0 || (i > 0 && sorted.get(i).version() == sorted.get(i - 1).version())) {
+                throw new IllegalArgumentException("Invalid or duplicate migration version " + sorted.get(i).version());
+            }
+        }
+        this.migrations = sorted;
+    }
+
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    // Applies every pending migration in order and returns how many ran
+    public int migrate() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            MigrationContext ctx = new MigrationContext(conn, stmt);
+            if (currentVersion(ctx) >= getLatestVersion()) {
+                return 0;
+            }
+
+            lock(ctx);
+            try {
+                ctx.execute(
+                    "CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "execution_ms BIGINT NOT NULL, " +
+                    "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")"
+                );
+                // Another instance may have migrated while this one waited for the lock
+                int current = currentVersion(ctx);
+                int applied = 0;
+                for (Migration migration : migrations) {
+                    if (migration.version() <= current) {
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    migration.step().apply(ctx);
+                    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                    record(conn, migration, elapsedMillis);
+                    System.err.println("Applied schema migration " + migration.version() + " ("
+                            + migration.description() + ") in " + elapsedMillis + " ms");
+                    applied++;
+                }
+                return applied;
+            } finally {
+                unlock(ctx);
+            }
+        }
+    }
+
+    private static int currentVersion(MigrationContext ctx) throws SQLException {
+        if (!ctx.tableExists("schema_version")) {
+            return 0;
+        }
+        return ctx.queryInt("SELECT COALESCE(MAX(version), 0) FROM schema_version");
+    }
+
+    private static void record(Connection conn, Migration migration, long elapsedMillis) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, execution_ms) VALUES (?, ?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.setLong(3, elapsedMillis);
+            insert.executeUpdate();
+        }
+    }
+
+    // H2 file databases are opened by one process at a time, so only MySQL needs the lock
+    private static void lock(MigrationContext ctx) throws SQLException {
+        if (!ctx.isMysql()) {
+            return;
+        }
+        try (PreparedStatement ps = ctx.getConnection().prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another instance to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    private static void unlock(MigrationContext ctx) throws SQLException {
+        if (!ctx.isMysql()) {
+            return;
+        }
+        try (PreparedStatement ps = ctx.getConnection().prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hospital.util;
+
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long borrowTimeouts;
+    private final long leaksDetected;
+    private final long totalBorrowNanos;
+    private final long maxBorrowNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    public PoolStats(int active, int idle, int waiters, int maxSize, long borrowCount, long borrowTimeouts,
+                     long leaksDetected, long totalBorrowNanos, long maxBorrowNanos,
+                     long statementCacheHits, long statementCacheMisses) {
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.borrowTimeouts = borrowTimeouts;
+        this.leaksDetected = leaksDetected;
+        this.totalBorrowNanos = totalBorrowNanos;
+        this.maxBorrowNanos = maxBorrowNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts;
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected;
+    }
+
+    public double getAverageBorrowMicros() {
+        return borrowCount == 0 ? 0 : totalBorrowNanos / 1000.0 / borrowCount;
+    }
+
+    public double getMaxBorrowMicros() {
+        return maxBorrowNanos / 1000.0;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolStats{active=%d, idle=%d, waiters=%d, maxSize=%d, borrows=%d, " +
+                        "timeouts=%d, leaks=%d, avgBorrow=%.1fus, maxBorrow=%.1fus, " +
+                        "stmtCacheHits=%d, stmtCacheMisses=%d}",
+                active, idle, waiters, maxSize, borrowCount, borrowTimeouts, leaksDetected,
+                getAverageBorrowMicros(), getMaxBorrowMicros(), statementCacheHits, statementCacheMisses);
+    }
+}
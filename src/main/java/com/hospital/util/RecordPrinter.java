@@ -0,0 +1,164 @@
+package com.hospital.util;
+
+import com.google.gson.stream.JsonWriter;
+import com.hospital.model.Appointment;
+import com.hospital.model.Patient;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Writes listings through one buffered writer instead of a printf per row: text rows are appended piece by piece
+// and times are formatted straight into the buffer with the pre-built formatters, so printing 100k rows costs about
+// as much as fetching them. Nothing reaches the terminal until flush, so call it before prompting for input.
+//
+// JSON_LINES writes one JSON object per line with the same field names as the bulk export, for scripts to parse.
+public class RecordPrinter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Format {
+        TEXT, JSON_LINES;
+
+        // "text" or "jsonl"
+        public static Format fromName(String name) {
+            switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "text":
+                    return TEXT;
+                case "jsonl":
+                case "json-lines":
+                    return JSON_LINES;
+                default:
+                    throw new IllegalArgumentException("Unknown output format " + name + "; expected text or jsonl");
+            }
+        }
+    }
+
+    private final PrintWriter out;
+    private final Format format;
+    private final JsonWriter json;
+
+    public RecordPrinter(PrintWriter out, Format format) {
+        this.out = out;
+        this.format = format;
+        this.json = new JsonWriter(out);
+        // Lenient so one writer can emit a top-level object per line
+        json.setLenient(true);
+    }
+
+    // Buffers in front of System.out, which is left open
+    public static RecordPrinter toStandardOut(Format format) {
+        return new RecordPrinter(new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, System.out.charset()), BUFFER_SIZE)), format);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void patient(Patient patient) {
+        if (format == Format.TEXT) {
+            out.append("ID: ").append(Integer.toString(patient.getId()))
+                    .append(", Name: ").append(patient.getName())
+                    .append(", Phone: ").append(patient.getPhone())
+                    .append(", Email: ").append(patient.getEmail())
+                    .println();
+            return;
+        }
+        try {
+            json.beginObject();
+            json.name("id").value(patient.getId());
+            json.name("name").value(patient.getName());
+            json.name("phone").value(patient.getPhone());
+            json.name("email").value(patient.getEmail());
+            json.name("date_of_birth").value(patient.getDateOfBirth() == null ? null : patient.getDateOfBirth().toString());
+            json.name("address").value(patient.getAddress());
+            json.endObject();
+            out.println();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // doctorName may be null when the doctor is not known
+    public void appointment(Appointment appointment, String doctorName) {
+        if (format == Format.TEXT) {
+            out.append("ID: ").append(Integer.toString(appointment.getId()))
+                    .append(", Patient ID: ").append(Integer.toString(appointment.getPatientId()))
+                    .append(", Doctor: ");
+            if (doctorName != null) {
+                out.append(doctorName);
+            } else {
+                out.append('#').append(Integer.toString(appointment.getDoctorId()));
+            }
+            out.append(", Time: ");
+            ConsoleUtil.DATE_TIME_FORMAT.formatTo(appointment.getAppointmentTime(), out);
+            out.append(", Purpose: ").append(appointment.getPurpose())
+                    .append(", Status: ").append(appointment.getStatus().getLabel())
+                    .println();
+            return;
+        }
+        try {
+            json.beginObject();
+            json.name("id").value(appointment.getId());
+            json.name("patient_id").value(appointment.getPatientId());
+            json.name("doctor_id").value(appointment.getDoctorId());
+            json.name("doctor").value(doctorName);
+            json.name("appointment_time").value(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(appointment.getAppointmentTime()));
+            json.name("duration_minutes").value(appointment.getDurationMinutes());
+            json.name("purpose").value(appointment.getPurpose());
+            json.name("status").value(appointment.getStatus().getLabel());
+            json.endObject();
+            out.println();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A result line made of name/value pairs, e.g. fields("result", "BOOKED", "id", 42): "result: BOOKED, id: 42"
+    // as text, {"result":"BOOKED","id":42} as JSON. Numbers and booleans stay typed in JSON, anything else is a string.
+    public void fields(Object... namesAndValues) {
+        if (format == Format.TEXT) {
+            for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                out.append(String.valueOf(namesAndValues[i])).append(": ").append(String.valueOf(namesAndValues[i + 1]));
+            }
+            out.println();
+            return;
+        }
+        try {
+            json.beginObject();
+            for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+                json.name(String.valueOf(namesAndValues[i]));
+                Object value = namesAndValues[i + 1];
+                if (value == null) {
+                    json.nullValue();
+                } else if (value instanceof Number number) {
+                    json.value(number);
+                } else if (value instanceof Boolean bool) {
+                    json.value(bool);
+                } else {
+                    json.value(value.toString());
+                }
+            }
+            json.endObject();
+            out.println();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Plain text, written as is in either format; for headings and messages in the interactive console
+    public void line(String text) {
+        out.println(text);
+    }
+
+    public void flush() {
+        out.flush();
+    }
+}
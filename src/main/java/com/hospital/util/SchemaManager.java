@@ -0,0 +1,212 @@
+package com.hospital.util;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+// The schema as an ordered list of migrations. Databases created before versioning start at version 0; the early
+// steps check what already exists, so they adopt such a database without recreating anything. New schema changes are
+// appended with the next version number and never edit a step that has shipped.
+public class SchemaManager {
+    // Seeded into an empty doctors table: name, specialization
+    private static final String[][] DEFAULT_DOCTORS = {
+            {"Dr. Smith", "General Medicine"},
+            {"Dr. Johnson", "Cardiology"},
+            {"Dr. Williams", "Pediatrics"},
+            {"Dr. Brown", "Orthopedics"}
+    };
+    private static final String BACKFILL_DOCTOR_ID_SQL = "UPDATE appointments " +
+            "SET doctor_id = (SELECT d.id FROM doctors d WHERE d.name = appointments.doctor_name) " +
+            "WHERE doctor_id IS NULL AND id > ? AND id <= ?";
+    // Codes match AppointmentStatus; anything unrecognised is treated as still scheduled
+    private static final String BACKFILL_STATUS_CODE_SQL = "UPDATE %s " +
+            "SET status_code = CASE status WHEN 'Completed' THEN 2 WHEN 'Cancelled' THEN 3 ELSE 1 END " +
+            "WHERE status_code IS NULL AND id > ? AND id <= ?";
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create patients, doctors and appointments", SchemaManager::createTables),
+            new Migration(2, "Key appointments on doctor_id", SchemaManager::migrateDoctorNames),
+            new Migration(3, "Add appointment lookup indexes", SchemaManager::createAppointmentIndexes),
+            new Migration(4, "Create appointments_archive", SchemaManager::createAppointmentArchive),
+            new Migration(5, "Store appointment status as TINYINT", SchemaManager::convertStatusCodes),
+            new Migration(6, "Add row versions for optimistic locking", SchemaManager::addRowVersions),
+            new Migration(7, "Limit appointment durations", SchemaManager::limitDurations)
+    );
+
+    public static void initialize() throws SQLException {
+        new MigrationRunner(MIGRATIONS).migrate();
+    }
+
+    private static void createTables(MigrationContext ctx) throws SQLException {
+        // Create patients table
+        ctx.execute(
+            "CREATE TABLE IF NOT EXISTS patients (" +
+            "id INT AUTO_INCREMENT PRIMARY KEY, " +
+            "name VARCHAR(100) NOT NULL, " +
+            "phone VARCHAR(20) NOT NULL, " +
+            "email VARCHAR(100), " +
+            "date_of_birth DATE NOT NULL, " +
+            "address TEXT, " +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")"
+        );
+
+        // Create doctors table
+        ctx.execute(
+            "CREATE TABLE IF NOT EXISTS doctors (" +
+            "id INT AUTO_INCREMENT PRIMARY KEY, " +
+            "name VARCHAR(100) NOT NULL, " +
+            "specialization VARCHAR(100), " +
+            "work_start TIME NOT NULL DEFAULT '09:00:00', " +
+            "work_end TIME NOT NULL DEFAULT '17:00:00', " +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+            "CONSTRAINT uk_doctors_name UNIQUE (name)" +
+            ")"
+        );
+        seedDoctors(ctx);
+
+        // Create appointments table
+        ctx.execute(
+            "CREATE TABLE IF NOT EXISTS appointments (" +
+            "id INT AUTO_INCREMENT PRIMARY KEY, " +
+            "patient_id INT NOT NULL, " +
+            "doctor_id INT NOT NULL, " +
+            "appointment_time DATETIME NOT NULL, " +
+            "duration_minutes INT NOT NULL DEFAULT 30, " +
+            "purpose TEXT, " +
+            "status VARCHAR(20) DEFAULT 'Scheduled', " +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+            "FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE, " +
+            "CONSTRAINT fk_appointments_doctor FOREIGN KEY (doctor_id) REFERENCES doctors(id)" +
+            ")"
+        );
+
+        // Tables created before appointment durations existed
+        ctx.addColumnIfMissing("appointments", "duration_minutes", "INT NOT NULL DEFAULT 30");
+    }
+
+    private static void seedDoctors(MigrationContext ctx) throws SQLException {
+        if (ctx.queryInt("SELECT COUNT(*) FROM doctors") > 0) {
+            return;
+        }
+        try (PreparedStatement insert = ctx.getConnection().prepareStatement(
+                "INSERT INTO doctors (name, specialization) VALUES (?, ?)")) {
+            for (String[] doctor : DEFAULT_DOCTORS) {
+                insert.setString(1, doctor[0]);
+                insert.setString(2, doctor[1]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    // Replaces appointments.doctor_name, from tables created before doctors had their own table, with a doctor_id
+    // foreign key. Every distinct name becomes a doctor, then doctor_id is filled by a throttled chunked backfill
+    // while the table stays in use. The name column and its indexes are dropped only once every row has moved over.
+    private static void migrateDoctorNames(MigrationContext ctx) throws SQLException {
+        if (ctx.columnExists("appointments", "doctor_name")) {
+            ctx.addColumnIfMissing("appointments", "doctor_id", "INT NULL");
+            // Rows written by older instances while the backfill runs are caught by the second pass
+            for (int pass = 0; pass < 2; pass++) {
+                ctx.execute("INSERT INTO doctors (name) SELECT DISTINCT a.doctor_name FROM appointments a " +
+                        "WHERE a.doctor_id IS NULL AND NOT EXISTS (SELECT 1 FROM doctors d WHERE d.name = a.doctor_name)");
+                ctx.backfill("appointments", BACKFILL_DOCTOR_ID_SQL);
+            }
+
+            ctx.dropIndexIfExists("appointments", "idx_appointments_doctor_time");
+            ctx.dropIndexIfExists("appointments", "idx_appointments_doctor_status_time");
+            ctx.dropColumnIfExists("appointments", "doctor_name");
+        }
+        // Checked separately so a run interrupted after dropping doctor_name still finishes the job
+        if (ctx.columnNullable("appointments", "doctor_id")) {
+            ctx.alter("appointments", "MODIFY COLUMN doctor_id INT NOT NULL");
+        }
+        if (!ctx.foreignKeyExists("appointments", "fk_appointments_doctor")) {
+            ctx.alter("appointments",
+                    "ADD CONSTRAINT fk_appointments_doctor FOREIGN KEY (doctor_id) REFERENCES doctors(id)");
+        }
+    }
+
+    private static void createAppointmentIndexes(MigrationContext ctx) throws SQLException {
+        // Booking locks the doctor's time range through this index (see JdbcAppointmentDAO.bookAppointment)
+        ctx.createIndexIfMissing("appointments", "idx_appointments_doctor_time", "doctor_id, appointment_time");
+
+        // Listing indexes: daily/weekly schedules, per-doctor schedules and patient history
+        ctx.createIndexIfMissing("appointments", "idx_appointments_status_time", "status, appointment_time");
+        ctx.createIndexIfMissing("appointments", "idx_appointments_doctor_status_time",
+                "doctor_id, status, appointment_time");
+        ctx.createIndexIfMissing("appointments", "idx_appointments_patient_time", "patient_id, appointment_time");
+    }
+
+    // Finished appointments moved out of the hot table by the archival job. Rows keep their original id, and only
+    // patient history reads them, through the (patient_id, appointment_time) index.
+    private static void createAppointmentArchive(MigrationContext ctx) throws SQLException {
+        ctx.execute(
+            "CREATE TABLE IF NOT EXISTS appointments_archive (" +
+            "id INT PRIMARY KEY, " +
+            "patient_id INT NOT NULL, " +
+            "doctor_id INT NOT NULL, " +
+            "appointment_time DATETIME NOT NULL, " +
+            "duration_minutes INT NOT NULL DEFAULT 30, " +
+            "purpose TEXT, " +
+            "status VARCHAR(20), " +
+            "created_at TIMESTAMP NULL, " +
+            "archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+            "CONSTRAINT fk_appointments_archive_patient FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE, " +
+            "CONSTRAINT fk_appointments_archive_doctor FOREIGN KEY (doctor_id) REFERENCES doctors(id)" +
+            ")"
+        );
+        ctx.createIndexIfMissing("appointments_archive", "idx_appointments_archive_patient_time",
+                "patient_id, appointment_time");
+    }
+
+    // Replaces the VARCHAR status with a TINYINT code (see AppointmentStatus) in both appointment tables, which
+    // shrinks the status-leading index entries and turns status filters into integer compares. The code column is
+    // added alongside and backfilled in chunks, then swapped in under the old name.
+    private static void convertStatusCodes(MigrationContext ctx) throws SQLException {
+        for (String table : new String[]{"appointments", "appointments_archive"}) {
+            int type = ctx.columnType(table, "status");
+            if (type == Types.VARCHAR || type == Types.CHAR) {
+                ctx.addColumnIfMissing(table, "status_code", "TINYINT NULL");
+                // The second pass picks up rows written by older instances during the first
+                for (int pass = 0; pass < 2; pass++) {
+                    ctx.backfill(table, String.format(BACKFILL_STATUS_CODE_SQL, table));
+                }
+                ctx.dropIndexIfExists(table, "idx_appointments_status_time");
+                ctx.dropIndexIfExists(table, "idx_appointments_doctor_status_time");
+                ctx.dropColumnIfExists(table, "status");
+            }
+            // Checked separately so a run interrupted after dropping the old column still finishes the swap
+            if (ctx.columnExists(table, "status_code")) {
+                ctx.alter(table, "RENAME COLUMN status_code TO status");
+            }
+            if (ctx.columnNullable(table, "status")) {
+                ctx.alter(table, "MODIFY COLUMN status TINYINT NOT NULL DEFAULT 1");
+            }
+        }
+        ctx.createIndexIfMissing("appointments", "idx_appointments_status_time", "status, appointment_time");
+        ctx.createIndexIfMissing("appointments", "idx_appointments_doctor_status_time",
+                "doctor_id, status, appointment_time");
+    }
+
+    // Bumped by every update and checked by the next one, so concurrent edits cannot silently overwrite each other.
+    // The archive carries it so rows keep their version when they move.
+    private static void addRowVersions(MigrationContext ctx) throws SQLException {
+        for (String table : new String[]{"patients", "appointments", "appointments_archive"}) {
+            ctx.addColumnIfMissing(table, "version", "INT NOT NULL DEFAULT 0");
+        }
+    }
+
+    // The overlap checks only look back Appointment.MAX_DURATION_MINUTES (240) for appointments reaching into a slot,
+    // so a longer one would go unseen. Rows written out of range before the DAOs refused them are clamped first so
+    // the CHECK can be added.
+    private static void limitDurations(MigrationContext ctx) throws SQLException {
+        ctx.backfill("appointments", "UPDATE appointments SET duration_minutes = CASE WHEN duration_minutes < 1 THEN 1"
+                + " ELSE 240 END WHERE id > ? AND id <= ? AND (duration_minutes < 1 OR duration_minutes > 240)");
+        if (!ctx.constraintExists("appointments", "chk_appointments_duration")) {
+            ctx.alter("appointments",
+                    "ADD CONSTRAINT chk_appointments_duration CHECK (duration_minutes BETWEEN 1 AND 240)");
+        }
+    }
+}
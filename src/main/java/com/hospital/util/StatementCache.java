@@ -0,0 +1,186 @@
+package com.hospital.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-connection LRU cache of prepared statements. A cached statement is "closed" by the DAO as usual,
+// which only resets it and hands it back to the cache; the physical statement lives as long as its connection.
+// Reset covers parameters, batch and any limits the borrower tuned (fetch size, max rows, timeout), so the next
+// borrower gets the statement as the driver first prepared it.
+class StatementCache {
+    private final Connection raw;
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final Map<String, CachedStatement> statements;
+
+    StatementCache(Connection raw, int capacity, AtomicLong hits, AtomicLong misses) {
+        this.raw = raw;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+                CachedStatement evicted = eldest.getValue();
+                if (evicted.inUse) {
+                    evicted.evicted = true;
+                } else {
+                    closeQuietly(evicted.statement);
+                }
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        if (capacity <= 0) {
+            return raw.prepareStatement(sql, autoGeneratedKeys);
+        }
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.incrementAndGet();
+        } else if (cached != null) {
+            // Same SQL already checked out on this connection (nested use); hand out a throwaway statement
+            misses.incrementAndGet();
+            return raw.prepareStatement(sql, autoGeneratedKeys);
+        } else {
+            misses.incrementAndGet();
+            cached = new CachedStatement(raw.prepareStatement(sql, autoGeneratedKeys));
+            statements.put(key, cached);
+        }
+        cached.inUse = true;
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new Handle(key, cached, owner));
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // The statement is being discarded anyway
+        }
+    }
+
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        // The driver's defaults, restored on check-in when a borrower changed any of them
+        final int fetchSize;
+        final int fetchDirection;
+        final int maxRows;
+        final int maxFieldSize;
+        final int queryTimeout;
+        boolean inUse;
+        boolean evicted;
+        boolean tuned;
+
+        CachedStatement(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.fetchDirection = statement.getFetchDirection();
+            this.maxRows = statement.getMaxRows();
+            this.maxFieldSize = statement.getMaxFieldSize();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+
+        void restoreDefaults() throws SQLException {
+            // Max rows first: some drivers refuse a fetch size above the current row limit
+            statement.setMaxRows(maxRows);
+            statement.setMaxFieldSize(maxFieldSize);
+            statement.setQueryTimeout(queryTimeout);
+            statement.setFetchDirection(fetchDirection);
+            statement.setFetchSize(fetchSize);
+            tuned = false;
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final String key;
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean closed;
+
+        Handle(String key, CachedStatement cached, Connection owner) {
+            this.key = key;
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        checkIn();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "setFetchSize":
+                case "setFetchDirection":
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                case "setMaxFieldSize":
+                case "setQueryTimeout":
+                    cached.tuned = true;
+                    break;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void checkIn() throws SQLException {
+            PreparedStatement statement = cached.statement;
+            if (cached.evicted) {
+                closeQuietly(statement);
+                return;
+            }
+            try {
+                ResultSet rs = statement.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                if (cached.tuned) {
+                    cached.restoreDefaults();
+                }
+            } catch (SQLException e) {
+                statements.remove(key, cached);
+                closeQuietly(statement);
+                throw e;
+            } finally {
+                cached.inUse = false;
+            }
+        }
+    }
+}
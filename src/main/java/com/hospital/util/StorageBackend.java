@@ -0,0 +1,51 @@
+package com.hospital.util;
+
+import java.util.Locale;
+
+// Where the data lives. MYSQL is a server reached over the network; H2 runs in-process on a local file, so a small
+// site needs no database server and starts in milliseconds. Both get the same schema from SchemaManager.
+// Chosen with -Dhospital.db.backend=mysql|h2; without it the backend is inferred from hospital.db.url, else MYSQL.
+public enum StorageBackend {
+    MYSQL("com.mysql.cj.jdbc.Driver",
+            "jdbc:mysql://localhost:3306/hospital_db?useSSL=false&serverTimezone=UTC"
+                    + "&useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true",
+            "root"),
+    // MySQL compatibility mode keeps the DDL and queries identical; lower-case identifiers match MySQL's metadata
+    H2("org.h2.Driver",
+            "jdbc:h2:file:./data/hospital;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+            "sa");
+
+    private final String driverClass;
+    private final String defaultUrl;
+    private final String defaultUser;
+
+    StorageBackend(String driverClass, String defaultUrl, String defaultUser) {
+        this.driverClass = driverClass;
+        this.defaultUrl = defaultUrl;
+        this.defaultUser = defaultUser;
+    }
+
+    public String getDriverClass() {
+        return driverClass;
+    }
+
+    public String getDefaultUrl() {
+        return defaultUrl;
+    }
+
+    public String getDefaultUser() {
+        return defaultUser;
+    }
+
+    public static StorageBackend fromConfig() {
+        String backend = System.getProperty("hospital.db.backend");
+        if (backend != null) {
+            return valueOf(backend.trim().toUpperCase(Locale.ROOT));
+        }
+        String url = System.getProperty("hospital.db.url");
+        if (url != null && url.startsWith("jdbc:h2:")) {
+            return H2;
+        }
+        return MYSQL;
+    }
+}
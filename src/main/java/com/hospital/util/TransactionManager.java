@@ -0,0 +1,280 @@
+package com.hospital.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Unit of work spanning several DAO calls. While a block runs, every DatabaseConnection.getConnection() on the same
+// thread returns the one connection the block holds, so the DAOs' statements share one transaction and one commit
+// (one log flush) instead of auto-committing each. The block commits at the end or rolls back as a whole; a deadlock,
+// lock wait timeout or serialization failure rolls it back and runs it again after a randomised backoff.
+//
+// A statement that fails inside the block dooms it even if the DAO swallowed the error and returned FAILED, false
+// or null. Cache and index updates made by the DAOs are deferred until the commit (see afterCommit). The block may
+// run more than once, so it should read what it needs inside the block rather than reuse objects written by an
+// earlier attempt. Async DAO calls run on other threads and therefore outside the block.
+public final class TransactionManager {
+    static final int MAX_ATTEMPTS = Integer.getInteger("hospital.tx.maxAttempts", 5);
+    static final long BACKOFF_MILLIS = Long.getLong("hospital.tx.backoffMillis", 5);
+    // Isolation for blocks that do not ask for one; -1 keeps the connection's default
+    private static final int DEFAULT_ISOLATION = isolationFromConfig();
+
+    private static final ThreadLocal<Transaction> current = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run() throws SQLException;
+    }
+
+    private TransactionManager() {
+    }
+
+    public static <T> T inTransaction(Work<T> work) throws SQLException {
+        return inTransaction(DEFAULT_ISOLATION, work);
+    }
+
+    // isolation is one of the Connection.TRANSACTION_* levels, or -1 for the connection's default. A block started
+    // inside another one joins the outer transaction, its isolation and its retries.
+    public static <T> T inTransaction(int isolation, Work<T> work) throws SQLException {
+        if (current.get() != null) {
+            return work.run();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            Transaction tx = new Transaction(DatabaseConnection.getPool().borrow());
+            current.set(tx);
+            T result;
+            try {
+                tx.begin(isolation);
+                result = work.run();
+                tx.commit();
+            } catch (SQLException e) {
+                tx.rollbackQuietly();
+                if (!isRetryable(e) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                result = null;
+            } catch (RuntimeException | Error e) {
+                tx.rollbackQuietly();
+                throw e;
+            } finally {
+                current.remove();
+                tx.close();
+            }
+
+            if (tx.committed) {
+                tx.runAfterCommit();
+                return result;
+            }
+            backoff(attempt);
+        }
+    }
+
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    // Runs action once the current block commits, and never if it rolls back; with no block active it runs now.
+    // DAOs route cache and index updates through here so a rolled-back write never reaches them.
+    public static void afterCommit(Runnable action) {
+        Transaction tx = current.get();
+        if (tx == null) {
+            action.run();
+        } else {
+            tx.afterCommit.add(action);
+        }
+    }
+
+    // Deadlocks, lock wait timeouts and serialization failures; the transaction can simply be run again
+    public static boolean isRetryable(SQLException e) {
+        String state = e.getSQLState();
+        return "40001".equals(state) || "HYT00".equals(state) || e.getErrorCode() == 1213 || e.getErrorCode() == 1205;
+    }
+
+    // Sleeps a random time below BACKOFF_MILLIS * 2^attempt, so transactions that collided do not collide again
+    public static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS << Math.min(attempt, 10)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The connection of the block running on this thread, or null
+    static Connection currentConnection() {
+        Transaction tx = current.get();
+        return tx == null ? null : tx.handle;
+    }
+
+    private static int isolationFromConfig() {
+        String level = System.getProperty("hospital.tx.isolation");
+        if (level == null || level.isBlank()) {
+            return -1;
+        }
+        return switch (level.trim().toUpperCase()) {
+            case "READ_UNCOMMITTED" -> Connection.TRANSACTION_READ_UNCOMMITTED;
+            case "READ_COMMITTED" -> Connection.TRANSACTION_READ_COMMITTED;
+            case "REPEATABLE_READ" -> Connection.TRANSACTION_REPEATABLE_READ;
+            case "SERIALIZABLE" -> Connection.TRANSACTION_SERIALIZABLE;
+            default -> throw new IllegalArgumentException("Unknown hospital.tx.isolation: " + level);
+        };
+    }
+
+    private static final class Transaction {
+        final Connection conn;
+        // What the DAOs get: closing it, committing or rolling back is left to the block
+        final Connection handle;
+        final List<Runnable> afterCommit = new ArrayList<>();
+        // The failure already recorded when each savepoint was set, which rolling back to it must not forgive
+        final Map<Savepoint, SQLException> failureAtSavepoint = new IdentityHashMap<>();
+        SQLException failure;
+        boolean committed;
+
+        Transaction(Connection conn) {
+            this.conn = conn;
+            this.handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle());
+        }
+
+        void begin(int isolation) throws SQLException {
+            if (isolation >= 0 && conn.getTransactionIsolation() != isolation) {
+                conn.setTransactionIsolation(isolation);
+            }
+            conn.setAutoCommit(false);
+        }
+
+        void commit() throws SQLException {
+            if (failure != null) {
+                throw failure;
+            }
+            conn.commit();
+            committed = true;
+        }
+
+        void rollbackQuietly() {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                // The pool rolls back again when the connection is returned, and discards it if that fails too
+            }
+        }
+
+        void close() {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+
+        void runAfterCommit() {
+            for (Runnable action : afterCommit) {
+                action.run();
+            }
+        }
+
+        // Keeps the first failure; a later retryable one wins so the block is retried
+        void fail(SQLException e) {
+            if (failure == null || (isRetryable(e) && !isRetryable(failure))) {
+                failure = e;
+            }
+        }
+
+        private final class Handle implements InvocationHandler {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                    case "commit":
+                    case "setAutoCommit":
+                    case "setTransactionIsolation":
+                        return null;
+                    case "rollback":
+                        if (args == null) {
+                            return null;
+                        }
+                        // Undoing to a savepoint recovers from failures raised after it, unless the database
+                        // already abandoned the whole transaction; earlier ones still doom the block
+                        Savepoint savepoint = (Savepoint) args[0];
+                        conn.rollback(savepoint);
+                        if (failure != null && !isRetryable(failure) && failureAtSavepoint.containsKey(savepoint)) {
+                            failure = failureAtSavepoint.get(savepoint);
+                        }
+                        return null;
+                    case "setSavepoint": {
+                        Savepoint created = (Savepoint) forward(conn, method, args);
+                        failureAtSavepoint.put(created, failure);
+                        return created;
+                    }
+                    case "releaseSavepoint":
+                        forward(conn, method, args);
+                        failureAtSavepoint.remove((Savepoint) args[0]);
+                        return null;
+                    case "getAutoCommit":
+                        return false;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "TransactionConnection[" + conn + "]";
+                    default:
+                        break;
+                }
+                Object result = forward(conn, method, args);
+                if (result instanceof Statement) {
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                            new Class<?>[]{method.getReturnType()}, new StatementHandle(result));
+                }
+                return result;
+            }
+        }
+
+        // Records every statement failure, so an error a DAO swallowed still rolls the block back
+        private final class StatementHandle implements InvocationHandler {
+            private final Object statement;
+
+            StatementHandle(Object statement) {
+                this.statement = statement;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "getConnection":
+                        return handle;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                try {
+                    return forward(statement, method, args);
+                } catch (SQLException e) {
+                    fail(e);
+                    throw e;
+                }
+            }
+        }
+
+        private Object forward(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}